@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.bench;
+
+import java.time.LocalDate;
+import java.util.Random;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+
+/**
+ * Reproducible set of monthly vintages used by the benchmarks. The vintages
+ * are spread uniformly on the whole time span; each period is revised by all
+ * the vintages published after its end, so that the vintages table has the
+ * usual triangular shape.
+ *
+ * @author PALATEJ
+ */
+final class RandomVintages {
+
+    static final long SEED = 20200101L;
+
+    private final TsPeriod[] periods;
+    private final LocalDate[] vintages;
+    // flat list of the observations (position of the period, position of the vintage, value)
+    private final int[] pidx, vidx;
+    private final double[] values;
+
+    static RandomVintages of(int nperiods, int nvintages) {
+        return of(nperiods, nvintages, SEED);
+    }
+
+    static RandomVintages of(int nperiods, int nvintages, long seed) {
+        Random rnd = new Random(seed);
+        TsPeriod start = TsPeriod.monthly(1990, 1);
+        TsPeriod[] periods = new TsPeriod[nperiods];
+        for (int i = 0; i < nperiods; ++i) {
+            periods[i] = start.plus(i);
+        }
+        LocalDate first = periods[0].end().toLocalDate();
+        long span = periods[nperiods - 1].end().toLocalDate().toEpochDay() - first.toEpochDay();
+        LocalDate[] vintages = new LocalDate[nvintages];
+        for (int k = 0; k < nvintages; ++k) {
+            vintages[k] = first.plusDays(1 + (span * k) / nvintages);
+        }
+        int capacity = 0;
+        int[] firstVintage = new int[nperiods];
+        for (int i = 0, k = 0; i < nperiods; ++i) {
+            LocalDate end = periods[i].end().toLocalDate();
+            while (k < nvintages && !vintages[k].isAfter(end)) {
+                ++k;
+            }
+            firstVintage[i] = k;
+            capacity += nvintages - k;
+        }
+        int[] pidx = new int[capacity], vidx = new int[capacity];
+        double[] values = new double[capacity];
+        double level = 100;
+        for (int i = 0, n = 0; i < nperiods; ++i) {
+            level += rnd.nextGaussian();
+            double cur = level + rnd.nextGaussian();
+            for (int k = firstVintage[i], j = 1; k < nvintages; ++k, ++j) {
+                // revisions become smaller with time
+                cur += (level - cur) / (j + 1) + rnd.nextGaussian() / j;
+                pidx[n] = i;
+                vidx[n] = k;
+                values[n++] = cur;
+            }
+        }
+        return new RandomVintages(periods, vintages, pidx, vidx, values);
+    }
+
+    private RandomVintages(TsPeriod[] periods, LocalDate[] vintages, int[] pidx, int[] vidx, double[] values) {
+        this.periods = periods;
+        this.vintages = vintages;
+        this.pidx = pidx;
+        this.vidx = vidx;
+        this.values = values;
+    }
+
+    /**
+     * Creates the vintages from scratch (entries are added in the order of
+     * the periods)
+     *
+     * @return
+     */
+    TsDataVintages<LocalDate> build() {
+        TsDataVintages.Builder<LocalDate> builder = TsDataVintages.<LocalDate>builder();
+        for (int i = 0; i < values.length; ++i) {
+            builder.add(periods[pidx[i]], vintages[vidx[i]], values[i]);
+        }
+        return builder.build();
+    }
+
+    int getPeriodsCount() {
+        return periods.length;
+    }
+
+    int getVintagesCount() {
+        return vintages.length;
+    }
+
+    int getObservationsCount() {
+        return values.length;
+    }
+
+    LocalDate vintage(int k) {
+        return vintages[k];
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.bench;
+
+import java.util.concurrent.TimeUnit;
+import jdplus.revisions.base.r.Utility;
+import jdplus.revisions.base.r.Vintages;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Functions of Utility that handle each vintage (or each pair of consecutive
+ * vintages) separately. Their cost is linear in the number of vintages.
+ *
+ * @author PALATEJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilityBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int periods;
+
+    @Param({"10", "100", "1000"})
+    public int vintages;
+
+    private Matrix vtable, revs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Vintages all = new Vintages(RandomVintages.of(periods, vintages).build());
+        vtable = all.vtable().getMatrix();
+        revs = all.revisions().getMatrix();
+    }
+
+    @Benchmark
+    public double[] theil() {
+        return Utility.theil(vtable, 1);
+    }
+
+    @Benchmark
+    public double[] theil2() {
+        return Utility.theil2(vtable, 1);
+    }
+
+    @Benchmark
+    public Matrix slopeAndDrift() {
+        return Utility.slopeAndDrift(vtable, 1);
+    }
+
+    @Benchmark
+    public Matrix slopeAndDriftWithAutoCorrelation() {
+        return Utility.slopeAndDriftWithAutoCorrelation(vtable, 1, 2, 2);
+    }
+
+    @Benchmark
+    public Matrix unitroot() {
+        return Utility.unitroot(vtable, 1);
+    }
+
+    @Benchmark
+    public Matrix unitrootParallel() {
+        return Utility.unitroot(vtable, 1, true);
+    }
+
+    @Benchmark
+    public Matrix efficiencyModel1() {
+        return Utility.efficiencyModel1(vtable, 1);
+    }
+
+    @Benchmark
+    public Matrix efficiencyModel2() {
+        return Utility.efficiencyModel2(vtable, 1);
+    }
+
+    @Benchmark
+    public Matrix orthogonallyModel1() {
+        return Utility.orthogonallyModel1(revs, 2);
+    }
+
+    @Benchmark
+    public Matrix orthogonallyModel2() {
+        return Utility.orthogonallyModel2(revs, 2);
+    }
+
+    @Benchmark
+    public Matrix bias() {
+        return Utility.bias(revs);
+    }
+
+    @Benchmark
+    public Matrix signalNoise() {
+        return Utility.signalNoise(vtable, 1);
+    }
+}
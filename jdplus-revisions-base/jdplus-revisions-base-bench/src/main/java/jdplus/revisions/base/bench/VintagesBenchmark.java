@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.bench;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.api.timeseries.TsMatrix;
+import jdplus.revisions.base.core.parametric.Processor;
+import jdplus.revisions.base.r.Vintages;
+import jdplus.toolkit.base.api.timeseries.TsData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Construction of the vintages, extraction of a vintage and main analyses
+ *
+ * @author PALATEJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VintagesBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int periods;
+
+    @Param({"10", "100", "1000"})
+    public int vintages;
+
+    private RandomVintages data;
+    private TsDataVintages<LocalDate> all;
+    private Vintages rall;
+    private LocalDate first, middle, last;
+    private int diagonal;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = RandomVintages.of(periods, vintages);
+        all = data.build();
+        rall = new Vintages(all);
+        first = data.vintage(0);
+        middle = data.vintage(vintages / 2);
+        last = data.vintage(vintages - 1);
+        diagonal = Math.min(all.maxRevisionsCount() - 1, 15);
+    }
+
+    @Benchmark
+    public TsDataVintages<LocalDate> build() {
+        return data.build();
+    }
+
+    @Benchmark
+    public TsData vintageByKey() {
+        return all.vintage(middle);
+    }
+
+    @Benchmark
+    public TsData vintageByPosition() {
+        return all.vintage(vintages / 2);
+    }
+
+    @Benchmark
+    public TsMatrix vtable() {
+        return rall.vtable();
+    }
+
+    @Benchmark
+    public RegressionBasedAnalysis<LocalDate> verticalAnalysis() {
+        return Processor.verticalAnalysis(all, first, last);
+    }
+
+    @Benchmark
+    public RegressionBasedAnalysis<LocalDate> diagonalAnalysis() {
+        return Processor.diagonalAnalysis(all, 0, diagonal);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.api.parametric;
+
+import java.util.Arrays;
+import jdplus.toolkit.base.api.data.DoubleSeq;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+
+/**
+ * Columnar version of a regression based analysis. The results of the
+ * revision k are stored in the k-th position of each column (one primitive
+ * array by field).
+ *
+ * @author PALATEJ
+ * @param <K>
+ */
+public final class RegressionBasedTable<K extends Comparable> {
+
+    /**
+     * Positions of the different fields
+     */
+    public static final int THEIL = 0, N = 1, R2 = 2, F = 3,
+            B0 = 4, B0_STDEV = 5, B0_PVALUE = 6,
+            B1 = 7, B1_STDEV = 8, B1_PVALUE = 9,
+            BIAS_N = 10, BIAS_MU = 11, BIAS_SIGMA = 12, BIAS_T = 13, BIAS_TPVALUE = 14,
+            BIAS_AR = 15, BIAS_ADJUSTEDSIGMA = 16, BIAS_ADJUSTEDT = 17, BIAS_ADJUSTEDTPVALUE = 18;
+
+    public static final int FIELDS_COUNT = 19;
+
+    private static final String[] FIELDS = new String[]{
+        "theil", "n", "R2", "F",
+        "b0", "b0.stdev", "b0.pvalue",
+        "b1", "b1.stdev", "b1.pvalue",
+        "bias.n", "bias.mu", "bias.sigma", "bias.t", "bias.tpvalue",
+        "bias.ar", "bias.adjustedsigma", "bias.adjustedt", "bias.adjustedtpvalue"
+    };
+
+    public static <K extends Comparable> Builder<K> builder(int capacity) {
+        return new Builder<>(capacity);
+    }
+
+    public static class Builder<K extends Comparable> {
+
+        private Object[] vintages;
+        private final double[][] columns = new double[FIELDS_COUNT][];
+        private int size;
+
+        private Builder(int capacity) {
+            int n = Math.max(capacity, 1);
+            vintages = new Object[n];
+            for (int i = 0; i < FIELDS_COUNT; ++i) {
+                columns[i] = new double[n];
+            }
+        }
+
+        /**
+         * Adds the results of a new revision. Missing information (null
+         * regression or null bias) is stored as NaN.
+         *
+         * @param vintage The current vintage (may be null)
+         * @param theil Theil coefficient
+         * @param regression Regression between the current vintage and the
+         * first one
+         * @param bias Bias of the revisions
+         * @return
+         */
+        public Builder<K> add(K vintage, double theil, OlsTests regression, Bias bias) {
+            if (size == vintages.length) {
+                int n = size << 1;
+                vintages = Arrays.copyOf(vintages, n);
+                for (int i = 0; i < FIELDS_COUNT; ++i) {
+                    columns[i] = Arrays.copyOf(columns[i], n);
+                }
+            }
+            int k = size++;
+            vintages[k] = vintage;
+            columns[THEIL][k] = theil;
+            if (regression != null) {
+                columns[N][k] = regression.getN();
+                columns[R2][k] = regression.getR2();
+                columns[F][k] = regression.getF();
+                set(k, B0, regression.getCoefficients(), 0);
+                set(k, B1, regression.getCoefficients(), 1);
+            } else {
+                for (int i = N; i <= B1_PVALUE; ++i) {
+                    columns[i][k] = Double.NaN;
+                }
+            }
+            if (bias != null) {
+                columns[BIAS_N][k] = bias.getN();
+                columns[BIAS_MU][k] = bias.getMu();
+                columns[BIAS_SIGMA][k] = bias.getSigma();
+                columns[BIAS_T][k] = bias.getT();
+                columns[BIAS_TPVALUE][k] = bias.getTPvalue();
+                columns[BIAS_AR][k] = bias.getAr();
+                columns[BIAS_ADJUSTEDSIGMA][k] = bias.getAdjustedSigma();
+                columns[BIAS_ADJUSTEDT][k] = bias.getAdjustedT();
+                columns[BIAS_ADJUSTEDTPVALUE][k] = bias.getAdjustedTPvalue();
+            } else {
+                for (int i = BIAS_N; i < FIELDS_COUNT; ++i) {
+                    columns[i][k] = Double.NaN;
+                }
+            }
+            return this;
+        }
+
+        private void set(int k, int field, Coefficient[] c, int pos) {
+            if (c != null && pos < c.length && c[pos] != null) {
+                columns[field][k] = c[pos].getEstimate();
+                columns[field + 1][k] = c[pos].getStdev();
+                columns[field + 2][k] = c[pos].getPvalue();
+            } else {
+                columns[field][k] = Double.NaN;
+                columns[field + 1][k] = Double.NaN;
+                columns[field + 2][k] = Double.NaN;
+            }
+        }
+
+        public RegressionBasedTable<K> build() {
+            double[][] data = new double[FIELDS_COUNT][];
+            for (int i = 0; i < FIELDS_COUNT; ++i) {
+                data[i] = columns[i].length == size ? columns[i] : Arrays.copyOf(columns[i], size);
+            }
+            return new RegressionBasedTable<>(Arrays.copyOf(vintages, size), data);
+        }
+    }
+
+    /**
+     * Conversion of an existing analysis
+     *
+     * @param <K>
+     * @param analysis
+     * @return
+     */
+    public static <K extends Comparable> RegressionBasedTable<K> of(RegressionBasedAnalysis<K> analysis) {
+        Builder<K> builder = builder(analysis.size());
+        for (RevisionAnalysis<K> cur : analysis.getRevisions()) {
+            builder.add(cur.getVintage(), cur.getTheilCoefficient(), cur.getRegression(), cur.getBias());
+        }
+        return builder.build();
+    }
+
+    private final Object[] vintages;
+    private final double[][] columns;
+
+    private RegressionBasedTable(Object[] vintages, double[][] columns) {
+        this.vintages = vintages;
+        this.columns = columns;
+    }
+
+    /**
+     * Names of the fields, in the order of their positions
+     *
+     * @return
+     */
+    public static String[] fields() {
+        return FIELDS.clone();
+    }
+
+    /**
+     * Number of revisions
+     *
+     * @return
+     */
+    public int size() {
+        return vintages.length;
+    }
+
+    public K vintage(int k) {
+        return (K) vintages[k];
+    }
+
+    public double get(int k, int field) {
+        return columns[field][k];
+    }
+
+    /**
+     * The given field for all the revisions (no copy)
+     *
+     * @param field
+     * @return
+     */
+    public DoubleSeq column(int field) {
+        double[] col = columns[field];
+        return DoubleSeq.onMapping(col.length, i -> col[i]);
+    }
+
+    /**
+     * Copies the table in a column-major buffer (size() x FIELDS_COUNT)
+     *
+     * @param buffer
+     */
+    public void export(double[] buffer) {
+        int n = size();
+        if (buffer.length < n * FIELDS_COUNT) {
+            throw new IllegalArgumentException("buffer should contain at least " + n * FIELDS_COUNT + " elements");
+        }
+        for (int i = 0; i < FIELDS_COUNT; ++i) {
+            System.arraycopy(columns[i], 0, buffer, i * n, n);
+        }
+    }
+
+    /**
+     * The table as a matrix (size() x FIELDS_COUNT)
+     *
+     * @return
+     */
+    public Matrix matrix() {
+        double[] all = new double[size() * FIELDS_COUNT];
+        export(all);
+        return Matrix.of(all, size(), FIELDS_COUNT);
+    }
+}
@@ -16,6 +16,8 @@
  */
 package jdplus.revisions.base.api.parametric;
 
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.api.timeseries.TsDataVintagesView;
 import jdplus.revisions.base.api.timeseries.VintageSelector;
 import jdplus.toolkit.base.api.timeseries.TimeSelector;
 
@@ -37,6 +39,17 @@ public class Specification {
      */
     double alpha;
 
+    /**
+     * Applies the time selection and the vintage selection (without copy)
+     *
+     * @param <K>
+     * @param all
+     * @return
+     */
+    public <K extends Comparable> TsDataVintagesView<K> select(TsDataVintages<K> all) {
+        return all.view().select(timeSelection).select(vintageSelection);
+    }
+
     public static Builder builder() {
         return new Builder()
                 .timeSelection(TimeSelector.all())
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.api.timeseries;
+
+import java.util.List;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+
+/**
+ * 64-bit content hashes of vintages. The fingerprint of a series is a
+ * combination of the fingerprints of its periods, so that the fingerprint of
+ * a range of periods can be computed without reading the data again.
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+class Fingerprints {
+
+    private final long EMPTY = 0x9E3779B97F4A7C15L, MULTIPLIER = 0xD6E8FEB86659FD93L;
+
+    /**
+     * Fingerprints of all the periods
+     *
+     * @param data
+     * @return
+     */
+    long[] periods(TsObsVintages.Entry<?>[][] data) {
+        long[] p = new long[data.length];
+        for (int i = 0; i < data.length; ++i) {
+            TsObsVintages.Entry<?>[] cur = data[i];
+            p[i] = cur == null ? EMPTY : period(cur, 0, cur.length);
+        }
+        return p;
+    }
+
+    /**
+     * Fingerprint of the entries [beg, end[ of a period
+     *
+     * @param cur
+     * @param beg
+     * @param end
+     * @return
+     */
+    long period(TsObsVintages.Entry<?>[] cur, int beg, int end) {
+        long h = EMPTY;
+        for (int j = beg; j < end; ++j) {
+            h = mix(h ^ cur[j].getKey().hashCode());
+            h = mix(h + Double.doubleToLongBits(cur[j].getValue()));
+        }
+        return h;
+    }
+
+    long start(TsPeriod start) {
+        return mix(start.hashCode());
+    }
+
+    long next(long h, long period) {
+        return mix(h * MULTIPLIER + period);
+    }
+
+    /**
+     * Fingerprint of the periods [beg, end[
+     *
+     * @param start First period
+     * @param periods Fingerprints of the periods
+     * @param beg
+     * @param end
+     * @return
+     */
+    long combine(TsPeriod start, long[] periods, int beg, int end) {
+        long h = start(start);
+        for (int i = beg; i < end; ++i) {
+            h = next(h, periods[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Adds the list of the vintages to a fingerprint
+     *
+     * @param h
+     * @param vintages
+     * @return
+     */
+    long vintages(long h, List<?> vintages) {
+        h = next(h, vintages.size());
+        for (Object v : vintages) {
+            h = next(h, mix(v.hashCode()));
+        }
+        return h;
+    }
+
+    /**
+     * Finalizer of SplitMix64
+     */
+    private long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.api.timeseries;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Parsing of ISO dates (yyyy-MM-dd) without intermediate objects. Any other
+ * input is handled by DateTimeFormatter.ISO_DATE, with the same (strict)
+ * behaviour
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class IsoDates {
+
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    /**
+     * Number of days since 1970-01-01
+     *
+     * @param s The date (ISO format)
+     * @return
+     */
+    public int epochDay(CharSequence s) {
+        if (s.length() == 10 && s.charAt(4) == '-' && s.charAt(7) == '-') {
+            int y = digits(s.charAt(0), s.charAt(1), s.charAt(2), s.charAt(3));
+            int m = digits(s.charAt(5), s.charAt(6));
+            int d = digits(s.charAt(8), s.charAt(9));
+            if (isValid(y, m, d)) {
+                return epochDay(y, m, d);
+            }
+        }
+        return (int) LocalDate.parse(s, DateTimeFormatter.ISO_DATE).toEpochDay();
+    }
+
+    /**
+     * Number of days since 1970-01-01
+     *
+     * @param buffer ASCII bytes
+     * @param start Start position of the date (included)
+     * @param end End position of the date (excluded)
+     * @return
+     */
+    public int epochDay(byte[] buffer, int start, int end) {
+        if (end - start == 10 && buffer[start + 4] == '-' && buffer[start + 7] == '-') {
+            int y = digits((char) buffer[start], (char) buffer[start + 1], (char) buffer[start + 2], (char) buffer[start + 3]);
+            int m = digits((char) buffer[start + 5], (char) buffer[start + 6]);
+            int d = digits((char) buffer[start + 8], (char) buffer[start + 9]);
+            if (isValid(y, m, d)) {
+                return epochDay(y, m, d);
+            }
+        }
+        return (int) LocalDate.parse(new String(buffer, start, end - start, StandardCharsets.US_ASCII), DateTimeFormatter.ISO_DATE).toEpochDay();
+    }
+
+    public LocalDate parse(CharSequence s) {
+        return LocalDate.ofEpochDay(epochDay(s));
+    }
+
+    public LocalDate parse(byte[] buffer, int start, int end) {
+        return LocalDate.ofEpochDay(epochDay(buffer, start, end));
+    }
+
+    private int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -10000;
+    }
+
+    private int digits(char c0, char c1) {
+        return 10 * digit(c0) + digit(c1);
+    }
+
+    private int digits(char c0, char c1, char c2, char c3) {
+        return 100 * digits(c0, c1) + digits(c2, c3);
+    }
+
+    private boolean isLeap(int y) {
+        return (y & 3) == 0 && (y % 100 != 0 || y % 400 == 0);
+    }
+
+    private boolean isValid(int y, int m, int d) {
+        if (y < 0 || m < 1 || m > 12 || d < 1) {
+            return false;
+        }
+        return switch (m) {
+            case 2 ->
+                d <= (isLeap(y) ? 29 : 28);
+            case 4, 6, 9, 11 ->
+                d <= 30;
+            default ->
+                d <= 31;
+        };
+    }
+
+    /**
+     * Same algorithm as LocalDate.toEpochDay, for positive years
+     */
+    private int epochDay(int y, int m, int d) {
+        int total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * m - 362) / 12;
+        total += d - 1;
+        if (m > 2) {
+            --total;
+            if (!isLeap(y)) {
+                --total;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -17,6 +17,7 @@
 package jdplus.revisions.base.api.timeseries;
 
 import jdplus.toolkit.base.api.data.Seq;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
 import jdplus.toolkit.base.api.timeseries.TimeSelector;
 import jdplus.toolkit.base.api.timeseries.TsData;
 import jdplus.toolkit.base.api.timeseries.TsDomain;
@@ -131,6 +132,21 @@ public class TsDataVintages<K extends Comparable> implements Seq<TsObsVintages>
     @lombok.NonNull
     List<K> vintages;
 
+    @lombok.Getter(lazy = true, value = lombok.AccessLevel.PACKAGE)
+    @lombok.EqualsAndHashCode.Exclude
+    @lombok.ToString.Exclude
+    long[] periodFingerprints = Fingerprints.periods(data);
+
+    /**
+     * Content hash of the series (periods, vintages and values, list of the
+     * vintages), computed once. Identical series have the same fingerprint; it can be used as a
+     * key of cached results
+     */
+    @lombok.Getter(lazy = true)
+    @lombok.EqualsAndHashCode.Exclude
+    @lombok.ToString.Exclude
+    long fingerprint = Fingerprints.vintages(Fingerprints.combine(start, getPeriodFingerprints(), 0, data.length), vintages);
+
     @Override
     public TsObsVintages get(int index) throws IndexOutOfBoundsException {
         return new TsObsVintages(start.plus(index), data[index]);
@@ -141,15 +157,123 @@ public class TsDataVintages<K extends Comparable> implements Seq<TsObsVintages>
         return data.length;
     }
 
+    /**
+     * Reusable cursor on the periods. The cursor doesn't create any object
+     * when it moves or when it is read. It can be moved back with moveTo or
+     * reset.
+     */
+    public final class Cursor {
+
+        private int pos = -1;
+        private TsObsVintages.Entry<K>[] cur;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves back before the first period, so that the next call to next
+         * gives the first period again
+         *
+         * @return The cursor
+         */
+        public Cursor reset() {
+            cur = null;
+            pos = -1;
+            return this;
+        }
+
+        /**
+         * Moves to the given period
+         *
+         * @param index Position of the period
+         * @return The cursor
+         */
+        public Cursor moveTo(int index) {
+            cur = data[index];
+            pos = index;
+            return this;
+        }
+
+        /**
+         * Moves to the next period
+         *
+         * @return false if there is no next period
+         */
+        public boolean next() {
+            if (pos + 1 >= data.length) {
+                return false;
+            }
+            moveTo(pos + 1);
+            return true;
+        }
+
+        /**
+         * Position of the current period
+         *
+         * @return
+         */
+        public int getPosition() {
+            return pos;
+        }
+
+        /**
+         * Current period (created on each call)
+         *
+         * @return
+         */
+        public TsPeriod getPeriod() {
+            return start.plus(pos);
+        }
+
+        /**
+         * Number of vintages of the current period
+         *
+         * @return
+         */
+        public int getRevisionsCount() {
+            return cur == null ? 0 : cur.length;
+        }
+
+        public K getKey(int j) {
+            return cur[j].getKey();
+        }
+
+        public double getValue(int j) {
+            return cur[j].getValue();
+        }
+
+        /**
+         * @return The first value of the current period (NaN if none)
+         */
+        public double getFirstValue() {
+            return cur == null ? Double.NaN : cur[0].getValue();
+        }
+
+        /**
+         * @return The last value of the current period (NaN if none)
+         */
+        public double getLastValue() {
+            return cur == null ? Double.NaN : cur[cur.length - 1].getValue();
+        }
+    }
+
+    /**
+     * New cursor, before the first period
+     *
+     * @return
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
     public int maxRevisionsCount() {
 
         int n = 0;
-        for (int i = 0; i < data.length; ++i) {
-            if (data[i] != null) {
-                int ncur = data[i].length;
-                if (ncur > n) {
-                    n = ncur;
-                }
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            int ncur = cursor.getRevisionsCount();
+            if (ncur > n) {
+                n = ncur;
             }
         }
         return n;
@@ -161,25 +285,18 @@ public class TsDataVintages<K extends Comparable> implements Seq<TsObsVintages>
 
     public TsData preliminary() {
         double[] z = new double[data.length];
-        for (int i = 0; i < data.length; ++i) {
-            if (data[i] != null) {
-                z[i] = data[i][0].getValue();
-            } else {
-                z[i] = Double.NaN;
-            }
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            z[cursor.getPosition()] = cursor.getFirstValue();
         }
         return TsData.ofInternal(start, z);
     }
 
     public TsData current() {
         double[] z = new double[data.length];
-        for (int i = 0; i < data.length; ++i) {
-            TsObsVintages.Entry<K>[] cur = data[i];
-            if (cur != null) {
-                z[i] = cur[cur.length - 1].getValue();
-            } else {
-                z[i] = Double.NaN;
-            }
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            z[cursor.getPosition()] = cursor.getLastValue();
         }
         return TsData.ofInternal(start, z);
     }
@@ -236,6 +353,50 @@ public class TsDataVintages<K extends Comparable> implements Seq<TsObsVintages>
         return TsData.ofInternal(start, z).cleanExtremities();
     }
 
+    /**
+     * Triangle of the releases. The k-th column contains the k-th release of
+     * each period (same as vintage(k), without the cleaning of the
+     * extremities). Computed in one pass on the data.
+     *
+     * @return null if there is no data
+     */
+    public TsMatrix releases() {
+        return triangle(false);
+    }
+
+    /**
+     * Triangle of the revisions. The k-th column contains the differences
+     * between the (k+1)-th and the k-th releases of each period.
+     * Computed in one pass on the data.
+     *
+     * @return null if there is no revision
+     */
+    public TsMatrix revisions() {
+        return triangle(true);
+    }
+
+    private TsMatrix triangle(boolean revisions) {
+        int del = revisions ? 1 : 0;
+        int nr = data.length, nc = maxRevisionsCount() - del;
+        if (nc <= 0) {
+            return null;
+        }
+        double[] z = new double[nr * nc];
+        Arrays.fill(z, Double.NaN);
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            int m = cursor.getRevisionsCount() - del;
+            for (int j = 0, k = cursor.getPosition(); j < m; ++j, k += nr) {
+                z[k] = revisions ? cursor.getValue(j + 1) - cursor.getValue(j) : cursor.getValue(j);
+            }
+        }
+        String[] fields = new String[nc];
+        for (int j = 0; j < nc; ++j) {
+            fields[j] = Integer.toString(j + del);
+        }
+        return new TsMatrix(start, Matrix.of(z, nr, nc), fields);
+    }
+
     public double data(int idx, K vintage) {
         TsObsVintages.Entry<K>[] cur = data[idx];
         if (cur != null) {
@@ -300,62 +461,28 @@ public class TsDataVintages<K extends Comparable> implements Seq<TsObsVintages>
         return new TsDataVintages<>(sstart, copy, v);
     }
 
-//    public TsDataVintages<K> select(VintageSelector<K> vs) {
-//        if (vs.getType() == VintageSelectorType.All) {
-//            return this;
-//        }
-//        Builder builder = new Builder();
-//        for (int i = 0; i < data.length; ++i) {
-//            Entry<K>[] cur = data[i];
-//            if (cur != null) {
-//                TsPeriod period = start.plus(i);
-//                switch (vs.getType()) {
-//                    case First:
-//                        if (cur.length <= vs.getN0()) {
-//                            builder.add(period, data[i]);
-//                        } else {
-//                            builder.add(period, Arrays.copyOfRange(cur, 0, vs.getN0()));
-//                        }
-//                        break;
-//                    case Last:
-//                        if (cur.length <= vs.getN1()) {
-//                            builder.add(period, data[i]);
-//                        } else {
-//                            builder.add(period, Arrays.copyOfRange(cur, cur.length - vs.getN1(), cur.length));
-//                        }
-//                        break;
-//                    case Custom:
-//                        K k0 = vs.getK0(),
-//                        k1 = vs.getK1();
-//                        int pos0 = search(cur, k0),
-//                        pos1 = search(cur, k1);
-//                        if ((pos0 >= 0 || -1 - pos0 < cur.length) && (pos1 >= 0 || pos1 != -1)) { // not completely before and not completely after
-//                            if (pos0 < 0) {
-//                                pos0 = -pos0;
-//                            }
-//                            if (pos1 < 0) {
-//                                pos1 = -pos1 - 1;
-//                            } else {
-//                                pos1 = pos1 + 1;
-//                            }
-//                            if (pos1 > pos0) {
-//                                builder.add(period, Arrays.copyOfRange(cur, pos0, pos1));
-//                            }
-//                        }
-//                        break;
-//                    case Excluding:
-//                        int n0 = vs.getN0(),
-//                         n1 = cur.length - vs.getN1();
-//                        if (n0 < n1) {
-//                            builder.add(period, Arrays.copyOfRange(cur, n0, n1));
-//                        }
-//                        break;
-//                }
-//            }
-//        }
-//        return builder.build();
-//    }
-//
+    /**
+     * Vintages selection (copy). See also view()
+     *
+     * @param vs
+     * @return
+     */
+    public TsDataVintages<K> select(VintageSelector<K> vs) {
+        if (vs.getType() == VintageSelectorType.All) {
+            return this;
+        }
+        return view().select(vs).toVintages();
+    }
+
+    /**
+     * View on the data, for selections without copy
+     *
+     * @return
+     */
+    public TsDataVintagesView<K> view() {
+        return TsDataVintagesView.of(this);
+    }
+
     public static <K extends Comparable> TsData seriesAt(TsDataVintages vintages, LocalDateTime dt, TimeComparator<K> cmp) {
         TsPeriod start = vintages.start;
         double[] data = new double[vintages.data.length];
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.api.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import jdplus.toolkit.base.api.data.Seq;
+import jdplus.toolkit.base.api.timeseries.TimeSelector;
+import jdplus.toolkit.base.api.timeseries.TsData;
+import jdplus.toolkit.base.api.timeseries.TsDomain;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+
+/**
+ * Selection of periods and of vintages in TsDataVintages, without copy of
+ * the data. The periods are a range of the underlying periods; for each
+ * period, the selected vintages are a range of its entries, computed when
+ * they are accessed. Successive vintage selections are applied in order.
+ *
+ * @author PALATEJ
+ * @param <K>
+ */
+public final class TsDataVintagesView<K extends Comparable> implements Seq<TsObsVintages> {
+
+    private final TsDataVintages<K> source;
+    private final int beg, end;
+    private final VintageSelector<K>[] selectors;
+
+    public static <K extends Comparable> TsDataVintagesView<K> of(TsDataVintages<K> source) {
+        return new TsDataVintagesView<>(source, 0, source.length(), new VintageSelector[0]);
+    }
+
+    private TsDataVintagesView(TsDataVintages<K> source, int beg, int end, VintageSelector<K>[] selectors) {
+        this.source = source;
+        this.beg = beg;
+        this.end = end;
+        this.selectors = selectors;
+    }
+
+    /**
+     * Restricts the periods of the view
+     *
+     * @param ts
+     * @return
+     */
+    public TsDataVintagesView<K> select(TimeSelector ts) {
+        TsDomain domain = getDomain();
+        TsDomain selection = domain.select(ts);
+        if (selection.isEmpty()) {
+            return new TsDataVintagesView<>(source, beg, beg, selectors);
+        }
+        int del = domain.getStartPeriod().until(selection.getStartPeriod());
+        return new TsDataVintagesView<>(source, beg + del, beg + del + selection.getLength(), selectors);
+    }
+
+    /**
+     * Restricts the vintages of each period
+     *
+     * @param vs
+     * @return
+     */
+    public TsDataVintagesView<K> select(VintageSelector<K> vs) {
+        if (vs.getType() == VintageSelectorType.All) {
+            return this;
+        }
+        VintageSelector<K>[] nselectors = Arrays.copyOf(selectors, selectors.length + 1);
+        nselectors[selectors.length] = vs;
+        return new TsDataVintagesView<>(source, beg, end, nselectors);
+    }
+
+    public TsPeriod getStart() {
+        return source.getStart().plus(beg);
+    }
+
+    public TsDomain getDomain() {
+        return TsDomain.of(getStart(), end - beg);
+    }
+
+    @Override
+    public int length() {
+        return end - beg;
+    }
+
+    @Override
+    public TsObsVintages get(int index) throws IndexOutOfBoundsException {
+        TsObsVintages.Entry<K>[] cur = entries(index);
+        long range = range(cur);
+        int b = first(range), e = last(range);
+        return new TsObsVintages(getStart().plus(index), b == e ? null : Arrays.copyOfRange(cur, b, e));
+    }
+
+    /**
+     * Number of selected vintages for a given period
+     *
+     * @param index Position of the period in the view
+     * @return
+     */
+    public int count(int index) {
+        long range = range(entries(index));
+        return last(range) - first(range);
+    }
+
+    /**
+     * Vintage of a given observation
+     *
+     * @param index Position of the period in the view
+     * @param pos Position of the vintage in the selected vintages of the
+     * period
+     * @return
+     */
+    public K key(int index, int pos) {
+        TsObsVintages.Entry<K>[] cur = entries(index);
+        return cur[first(range(cur)) + pos].getKey();
+    }
+
+    /**
+     * Value of a given observation
+     *
+     * @param index Position of the period in the view
+     * @param pos Position of the vintage in the selected vintages of the
+     * period
+     * @return
+     */
+    public double value(int index, int pos) {
+        TsObsVintages.Entry<K>[] cur = entries(index);
+        return cur[first(range(cur)) + pos].getValue();
+    }
+
+    public TsData preliminary() {
+        double[] z = new double[length()];
+        for (int i = 0; i < z.length; ++i) {
+            TsObsVintages.Entry<K>[] cur = entries(i);
+            long range = range(cur);
+            z[i] = first(range) < last(range) ? cur[first(range)].getValue() : Double.NaN;
+        }
+        return TsData.ofInternal(getStart(), z);
+    }
+
+    public TsData current() {
+        double[] z = new double[length()];
+        for (int i = 0; i < z.length; ++i) {
+            TsObsVintages.Entry<K>[] cur = entries(i);
+            long range = range(cur);
+            z[i] = first(range) < last(range) ? cur[last(range) - 1].getValue() : Double.NaN;
+        }
+        return TsData.ofInternal(getStart(), z);
+    }
+
+    /**
+     * See TsDataVintages.vintage(pos)
+     *
+     * @param pos
+     * @return
+     */
+    public TsData vintage(int pos) {
+        double[] z = new double[length()];
+        for (int i = 0; i < z.length; ++i) {
+            TsObsVintages.Entry<K>[] cur = entries(i);
+            long range = range(cur);
+            int j = first(range) + pos;
+            z[i] = j < last(range) ? cur[j].getValue() : Double.NaN;
+        }
+        return TsData.ofInternal(getStart(), z).cleanExtremities();
+    }
+
+    /**
+     * See TsDataVintages.vintage(vintage)
+     *
+     * @param vintage
+     * @return
+     */
+    public TsData vintage(K vintage) {
+        double[] z = new double[length()];
+        for (int i = 0; i < z.length; ++i) {
+            TsObsVintages.Entry<K>[] cur = entries(i);
+            long range = range(cur);
+            int b = first(range);
+            // last vintage before or at the given one
+            int j = upperBound(cur, b, last(range), vintage) - 1;
+            z[i] = j >= b ? cur[j].getValue() : Double.NaN;
+        }
+        return TsData.ofInternal(getStart(), z).cleanExtremities();
+    }
+
+    /**
+     * Selected vintages (sorted). Computed on each call
+     *
+     * @return
+     */
+    public List<K> getVintages() {
+        TreeSet<K> set = new TreeSet<>();
+        for (int i = 0; i < length(); ++i) {
+            TsObsVintages.Entry<K>[] cur = entries(i);
+            long range = range(cur);
+            for (int j = first(range); j < last(range); ++j) {
+                set.add(cur[j].getKey());
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(set));
+    }
+
+    /**
+     * Fingerprint of the selection. A view on all the vintages reuses the
+     * fingerprints of the periods of the underlying series; a view on the
+     * complete series has the fingerprint of the series
+     *
+     * @return
+     */
+    public long fingerprint() {
+        if (selectors.length == 0) {
+            long h = Fingerprints.combine(getStart(), source.getPeriodFingerprints(), beg, end);
+            return Fingerprints.vintages(h, beg == 0 && end == source.length() ? source.getVintages() : getVintages());
+        }
+        long h = Fingerprints.start(getStart());
+        for (int i = 0; i < length(); ++i) {
+            TsObsVintages.Entry<K>[] cur = entries(i);
+            long range = range(cur);
+            h = Fingerprints.next(h, Fingerprints.period(cur, first(range), last(range)));
+        }
+        return Fingerprints.vintages(h, getVintages());
+    }
+
+    /**
+     * Copy of the selection
+     *
+     * @return
+     */
+    public TsDataVintages<K> toVintages() {
+        TsDataVintages.Builder<K> builder = TsDataVintages.builder();
+        TsPeriod start = getStart();
+        for (int i = 0; i < length(); ++i) {
+            TsObsVintages.Entry<K>[] cur = entries(i);
+            long range = range(cur);
+            if (first(range) < last(range)) {
+                builder.add(start.plus(i), Arrays.copyOfRange(cur, first(range), last(range)));
+            }
+        }
+        return builder.build();
+    }
+
+    private TsObsVintages.Entry<K>[] entries(int index) {
+        if (index < 0 || index >= end - beg) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return source.getData()[beg + index];
+    }
+
+    /**
+     * Range [first, last[ of the selected entries, packed in a long
+     */
+    private long range(TsObsVintages.Entry<K>[] cur) {
+        if (cur == null) {
+            return 0;
+        }
+        int b = 0, e = cur.length;
+        for (VintageSelector<K> vs : selectors) {
+            switch (vs.getType()) {
+                case First ->
+                    e = Math.min(e, b + vs.getN0());
+                case Last ->
+                    b = Math.max(b, e - vs.getN1());
+                case Excluding -> {
+                    b += vs.getN0();
+                    e -= vs.getN1();
+                }
+                case Custom -> {
+                    int nb = lowerBound(cur, b, e, vs.getK0());
+                    e = upperBound(cur, b, e, vs.getK1());
+                    b = nb;
+                }
+                default -> {
+                }
+            }
+            if (e <= b) {
+                return 0;
+            }
+        }
+        return ((long) b << 32) | e;
+    }
+
+    private static int first(long range) {
+        return (int) (range >>> 32);
+    }
+
+    private static int last(long range) {
+        return (int) range;
+    }
+
+    /**
+     * First position in [b, e[ with a key &ge k (e if none)
+     */
+    private static <K extends Comparable> int lowerBound(TsObsVintages.Entry<K>[] cur, int b, int e, K k) {
+        while (b < e) {
+            int m = (b + e) >>> 1;
+            if (cur[m].getKey().compareTo(k) < 0) {
+                b = m + 1;
+            } else {
+                e = m;
+            }
+        }
+        return b;
+    }
+
+    /**
+     * First position in [b, e[ with a key &gt k (e if none)
+     */
+    private static <K extends Comparable> int upperBound(TsObsVintages.Entry<K>[] cur, int b, int e, K k) {
+        while (b < e) {
+            int m = (b + e) >>> 1;
+            if (cur[m].getKey().compareTo(k) <= 0) {
+                b = m + 1;
+            } else {
+                e = m;
+            }
+        }
+        return b;
+    }
+}
@@ -55,6 +55,23 @@ public class TsObsVintages<K extends Comparable> {
         return vintages[vintages.length - 1];
     }
 
+    /**
+     * Number of vintages
+     *
+     * @return
+     */
+    public int size() {
+        return vintages == null ? 0 : vintages.length;
+    }
+
+    public K key(int pos) {
+        return vintages[pos].key;
+    }
+
+    public double value(int pos) {
+        return vintages[pos].value;
+    }
+
     public double[] values() {
         double[] vals = new double[vintages.length];
         for (int i = 0; i < vals.length; ++i) {
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.api.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import jdplus.toolkit.base.api.timeseries.TsData;
+import jdplus.toolkit.base.api.timeseries.TsDomain;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import jdplus.toolkit.base.api.timeseries.TsUnit;
+
+/**
+ * Panel of series sharing the same dictionary of vintages and the same
+ * frequency. The observations of all the series are stored in contiguous
+ * primitive arrays: for each (series, period), the positions of its vintages
+ * in the dictionary (sorted) and the corresponding values.
+ *
+ * @author PALATEJ
+ * @param <K>
+ */
+public final class TsPanelVintages<K extends Comparable> {
+
+    /**
+     * Builder of a panel, based on a given dictionary of vintages
+     *
+     * @param <K>
+     * @param vintages The (distinct) vintages that may be used by the series
+     * @return
+     */
+    public static <K extends Comparable> Builder<K> builder(Collection<K> vintages) {
+        return new Builder<>(vintages);
+    }
+
+    /**
+     * Panel of the given series. The dictionary is the union of their
+     * vintages
+     *
+     * @param <K>
+     * @param all
+     * @return
+     */
+    public static <K extends Comparable> TsPanelVintages<K> of(List<TsDataVintages<K>> all) {
+        TreeSet<K> set = new TreeSet<>();
+        for (TsDataVintages<K> cur : all) {
+            set.addAll(cur.getVintages());
+        }
+        Builder<K> builder = new Builder<>(set);
+        for (TsDataVintages<K> cur : all) {
+            builder.add(cur);
+        }
+        return builder.build();
+    }
+
+    public static class Builder<K extends Comparable> {
+
+        private final Comparable[] vintages;
+        private TsUnit unit;
+        private TsPeriod[] starts = new TsPeriod[16];
+        private int[] series = new int[17];
+        private int[] periods = new int[256];
+        private int[] keys = new int[1024];
+        private double[] values = new double[1024];
+        private int nseries, nperiods, nentries;
+
+        private Builder(Collection<K> vintages) {
+            this.vintages = vintages.toArray(new Comparable[vintages.size()]);
+            Arrays.sort(this.vintages);
+            for (int i = 1; i < this.vintages.length; ++i) {
+                if (this.vintages[i - 1].compareTo(this.vintages[i]) == 0) {
+                    throw new IllegalArgumentException("Duplicated vintage: " + this.vintages[i]);
+                }
+            }
+        }
+
+        /**
+         * Adds a series. Its vintages must belong to the dictionary and its
+         * frequency must be the one of the previous series. The builder is
+         * unchanged when the series is rejected
+         *
+         * @param s
+         * @return
+         */
+        public Builder<K> add(TsDataVintages<K> s) {
+            TsPeriod start = s.getStart();
+            if (unit != null && !unit.equals(start.getUnit())) {
+                throw new IllegalArgumentException("All the series should have the same frequency");
+            }
+            TsObsVintages.Entry<K>[][] data = s.getData();
+            if (nseries == starts.length) {
+                starts = Arrays.copyOf(starts, nseries << 1);
+                series = Arrays.copyOf(series, (nseries << 1) + 1);
+            }
+            ensurePeriods(data.length);
+            // the counters are only updated when the whole series is accepted
+            int np = nperiods, ne = nentries;
+            for (int i = 0; i < data.length; ++i) {
+                TsObsVintages.Entry<K>[] cur = data[i];
+                int m = cur == null ? 0 : cur.length;
+                ensureEntries(ne, m);
+                for (int j = 0; j < m; ++j, ++ne) {
+                    int k = Arrays.binarySearch(vintages, cur[j].getKey());
+                    if (k < 0) {
+                        throw new IllegalArgumentException("Unknown vintage: " + cur[j].getKey());
+                    }
+                    keys[ne] = k;
+                    values[ne] = cur[j].getValue();
+                }
+                periods[++np] = ne;
+            }
+            unit = start.getUnit();
+            nperiods = np;
+            nentries = ne;
+            starts[nseries] = start;
+            series[++nseries] = nperiods;
+            return this;
+        }
+
+        private void ensurePeriods(int n) {
+            if (nperiods + n + 1 > periods.length) {
+                periods = Arrays.copyOf(periods, Math.max(periods.length << 1, nperiods + n + 1));
+            }
+        }
+
+        private void ensureEntries(int ne, int n) {
+            if (ne + n > keys.length) {
+                int m = Math.max(keys.length << 1, ne + n);
+                keys = Arrays.copyOf(keys, m);
+                values = Arrays.copyOf(values, m);
+            }
+        }
+
+        public TsPanelVintages<K> build() {
+            return new TsPanelVintages<>(Collections.unmodifiableList(Arrays.asList((K[]) vintages)),
+                    Arrays.copyOf(starts, nseries), Arrays.copyOf(series, nseries + 1),
+                    Arrays.copyOf(periods, nperiods + 1), Arrays.copyOf(keys, nentries), Arrays.copyOf(values, nentries));
+        }
+    }
+
+    private final List<K> vintages;
+    private final TsPeriod[] starts;
+    // periods of the series s: [series[s], series[s+1][
+    private final int[] series;
+    // entries of the (global) period p: [periods[p], periods[p+1][
+    private final int[] periods;
+    private final int[] keys;
+    private final double[] values;
+
+    private TsPanelVintages(List<K> vintages, TsPeriod[] starts, int[] series, int[] periods, int[] keys, double[] values) {
+        this.vintages = vintages;
+        this.starts = starts;
+        this.series = series;
+        this.periods = periods;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Number of series
+     *
+     * @return
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * The shared dictionary of vintages (sorted)
+     *
+     * @return
+     */
+    public List<K> getVintages() {
+        return vintages;
+    }
+
+    public TsPeriod getStart(int s) {
+        return starts[s];
+    }
+
+    public int length(int s) {
+        return series[s + 1] - series[s];
+    }
+
+    public TsDomain getDomain(int s) {
+        return TsDomain.of(starts[s], length(s));
+    }
+
+    /**
+     * Total number of observations (all series, periods and vintages)
+     *
+     * @return
+     */
+    public int count() {
+        return keys.length;
+    }
+
+    /**
+     * Number of observations (all periods and vintages) of a series
+     *
+     * @param s The position of the series
+     * @return
+     */
+    public int count(int s) {
+        return periods[series[s + 1]] - periods[series[s]];
+    }
+
+    /**
+     * Copy of a series of the panel
+     *
+     * @param s The position of the series
+     * @return
+     */
+    public TsDataVintages<K> series(int s) {
+        int p0 = series[s], n = length(s);
+        boolean[] used = new boolean[vintages.size()];
+        TsObsVintages.Entry<K>[][] data = new TsObsVintages.Entry[n][];
+        for (int i = 0; i < n; ++i) {
+            int beg = periods[p0 + i], end = periods[p0 + i + 1];
+            if (beg < end) {
+                TsObsVintages.Entry<K>[] cur = new TsObsVintages.Entry[end - beg];
+                for (int j = beg; j < end; ++j) {
+                    used[keys[j]] = true;
+                    cur[j - beg] = new TsObsVintages.Entry<>(vintages.get(keys[j]), values[j]);
+                }
+                data[i] = cur;
+            }
+        }
+        List<K> v = new ArrayList<>();
+        for (int k = 0; k < used.length; ++k) {
+            if (used[k]) {
+                v.add(vintages.get(k));
+            }
+        }
+        return new TsDataVintages<>(starts[s], data, Collections.unmodifiableList(v));
+    }
+
+    /**
+     * Value of a period of a series, as known at a given vintage (the last
+     * value registered at or before that vintage)
+     *
+     * @param s The position of the series
+     * @param period The period
+     * @param k The position of the vintage in the dictionary
+     * @return NaN if the value is unknown
+     */
+    public double value(int s, TsPeriod period, int k) {
+        int i = starts[s].until(period);
+        if (i < 0 || i >= length(s)) {
+            return Double.NaN;
+        }
+        return floor(series[s] + i, k);
+    }
+
+    /**
+     * The series s as known at the vintage k (same as
+     * TsDataVintages.vintage(K))
+     *
+     * @param s The position of the series
+     * @param k The position of the vintage in the dictionary
+     * @return
+     */
+    public TsData vintage(int s, int k) {
+        int p0 = series[s], n = length(s);
+        double[] z = new double[n];
+        for (int i = 0; i < n; ++i) {
+            z[i] = floor(p0 + i, k);
+        }
+        return TsData.ofInternal(starts[s], z).cleanExtremities();
+    }
+
+    /**
+     * All the series as known at the vintage k
+     *
+     * @param k The position of the vintage in the dictionary
+     * @return
+     */
+    public TsData[] vintage(int k) {
+        TsData[] all = new TsData[size()];
+        for (int s = 0; s < all.length; ++s) {
+            all[s] = vintage(s, k);
+        }
+        return all;
+    }
+
+    /**
+     * Cross-section of a period: its value in each series, as known at the
+     * vintage k
+     *
+     * @param period The period
+     * @param k The position of the vintage in the dictionary
+     * @return NaN for the series that don't contain the period
+     */
+    public double[] values(TsPeriod period, int k) {
+        double[] z = new double[size()];
+        for (int s = 0; s < z.length; ++s) {
+            z[s] = value(s, period, k);
+        }
+        return z;
+    }
+
+    /**
+     * Cross-section of the revisions of a period between two vintages
+     *
+     * @param period The period
+     * @param k0 The position of the first vintage in the dictionary
+     * @param k1 The position of the second vintage in the dictionary
+     * @return value(k1)-value(k0) for each series
+     */
+    public double[] revisions(TsPeriod period, int k0, int k1) {
+        double[] z = new double[size()];
+        for (int s = 0; s < z.length; ++s) {
+            z[s] = value(s, period, k1) - value(s, period, k0);
+        }
+        return z;
+    }
+
+    /**
+     * Last value of the global period p registered at or before the vintage k
+     *
+     * @param p
+     * @param k
+     * @return
+     */
+    private double floor(int p, int k) {
+        int lo = periods[p], hi = periods[p + 1] - 1;
+        if (lo > hi || keys[lo] > k) {
+            return Double.NaN;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (keys[mid] <= k) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return values[lo];
+    }
+}
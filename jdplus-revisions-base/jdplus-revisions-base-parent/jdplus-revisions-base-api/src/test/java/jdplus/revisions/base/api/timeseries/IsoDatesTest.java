@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.api.timeseries;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class IsoDatesTest {
+
+    public IsoDatesTest() {
+    }
+
+    @Test
+    public void testEpochDay() {
+        LocalDate d = LocalDate.of(1899, 12, 25);
+        LocalDate end = LocalDate.of(2101, 3, 1);
+        while (d.isBefore(end)) {
+            String s = d.format(DateTimeFormatter.ISO_DATE);
+            assertEquals(d.toEpochDay(), IsoDates.epochDay(s));
+            byte[] b = (" " + s + " ").getBytes(StandardCharsets.US_ASCII);
+            assertEquals(d.toEpochDay(), IsoDates.epochDay(b, 1, b.length - 1));
+            d = d.plusDays(1);
+        }
+    }
+
+    @Test
+    public void testFallback() {
+        assertEquals(LocalDate.of(2020, 1, 31), IsoDates.parse("2020-01-31+01:00"));
+        assertThrows(DateTimeParseException.class, () -> IsoDates.parse("2021-02-29"));
+        assertThrows(DateTimeParseException.class, () -> IsoDates.parse("2021-1-31"));
+        assertThrows(DateTimeParseException.class, () -> IsoDates.parse("2021-13-01"));
+        assertThrows(DateTimeParseException.class, () -> IsoDates.parse("20a1-01-01"));
+    }
+}
@@ -16,11 +16,13 @@
  */
 package jdplus.revisions.base.api.timeseries;
 
+import jdplus.toolkit.base.api.timeseries.TimeSelector;
 import jdplus.toolkit.base.api.timeseries.TsData;
 import jdplus.toolkit.base.api.timeseries.TsPeriod;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +45,83 @@ public class TsDataVintagesTest {
         assertEquals(s1, s2);
     }
 
+    @Test
+    public void testCursor() {
+        TsDataVintages<LocalDateTime> v = random(60, 5);
+        TsDataVintages<LocalDateTime>.Cursor cursor = v.cursor();
+        int n = 0;
+        while (cursor.next()) {
+            TsObsVintages<LocalDateTime> obs = v.get(cursor.getPosition());
+            assertEquals(obs.getPeriod(), cursor.getPeriod());
+            assertEquals(obs.size(), cursor.getRevisionsCount());
+            for (int j = 0; j < obs.size(); ++j) {
+                assertEquals(obs.key(j), cursor.getKey(j));
+                assertEquals(obs.value(j), cursor.getValue(j));
+            }
+            ++n;
+        }
+        assertEquals(v.length(), n);
+        assertEquals(5, v.maxRevisionsCount());
+        assertTrue(cursor.reset().next());
+        assertEquals(0, cursor.getPosition());
+        assertEquals(v.get(0).value(0), cursor.getFirstValue());
+    }
+
+    @Test
+    public void testTriangles() {
+        TsDataVintages<LocalDateTime> v = random(120, 8);
+        TsMatrix releases = v.releases(), revisions = v.revisions();
+        assertEquals(8, releases.getMatrix().getColumnsCount());
+        assertEquals(7, revisions.getMatrix().getColumnsCount());
+        for (int k = 0; k < 8; ++k) {
+            TsData s = TsData.of(releases.getStart(), releases.getMatrix().column(k)).cleanExtremities();
+            assertEquals(v.vintage(k).getDomain(), s.getDomain());
+            assertArrayEquals(v.vintage(k).getValues().toArray(), s.getValues().toArray());
+        }
+        for (int k = 0; k < 7; ++k) {
+            TsData r = TsData.subtract(v.vintage(k + 1), v.vintage(k));
+            assertArrayEquals(r.getValues().toArray(), revisions.getMatrix().column(k).toArray(), 1e-15);
+        }
+    }
+
+    @Test
+    public void testView() {
+        TsDataVintages<LocalDateTime> v = random(360, 15);
+        TsDataVintagesView<LocalDateTime> view = v.view().select(TimeSelector.last(120));
+        assertEquals(120, view.length());
+        assertEquals(v.getDomain().getLastPeriod(), view.getDomain().getLastPeriod());
+
+        TsDataVintagesView<LocalDateTime> first = view.select(VintageSelector.first(3));
+        assertEquals(3, first.count(0));
+        assertArrayEquals(view.vintage(2).getValues().toArray(), first.current().getValues().toArray());
+
+        TsDataVintagesView<LocalDateTime> last = view.select(VintageSelector.excluding(2, 0)).select(VintageSelector.last(1));
+        assertArrayEquals(view.current().getValues().toArray(), last.preliminary().getValues().toArray());
+
+        LocalDateTime t = LocalDateTime.of(2020, 1, 1, 0, 0);
+        TsDataVintagesView<LocalDateTime> custom = view.select(VintageSelector.custom(LocalDateTime.of(2000, 1, 1, 0, 0), t));
+        assertTrue(custom.getVintages().stream().allMatch(k -> !k.isAfter(t)));
+        assertArrayEquals(view.vintage(t).getValues().toArray(), custom.current().cleanExtremities().getValues().toArray());
+    }
+
+    @Test
+    public void testFingerprint() {
+        TsDataVintages<LocalDateTime> v = random(120, 5);
+        assertEquals(v.getFingerprint(), v.view().fingerprint());
+        assertEquals(v.getFingerprint(), v.view().select(VintageSelector.all()).fingerprint());
+
+        TsDataVintagesView<LocalDateTime> view = v.view().select(TimeSelector.last(60));
+        assertEquals(view.toVintages().getFingerprint(), view.fingerprint());
+        TsDataVintagesView<LocalDateTime> first = view.select(VintageSelector.first(3));
+        assertEquals(first.toVintages().getFingerprint(), first.fingerprint());
+        assertNotEquals(view.fingerprint(), first.fingerprint());
+
+        // same data, other list of vintages
+        List<LocalDateTime> vintages = v.getVintages();
+        TsDataVintages<LocalDateTime> other = new TsDataVintages<>(v.getStart(), v.getData(), vintages.subList(0, vintages.size() - 1));
+        assertNotEquals(v.getFingerprint(), other.getFingerprint());
+    }
+
 //    @Test
 //    public void testVintageSelection() {
 //        TsDataVintages<LocalDateTime> v = random(360, 15);
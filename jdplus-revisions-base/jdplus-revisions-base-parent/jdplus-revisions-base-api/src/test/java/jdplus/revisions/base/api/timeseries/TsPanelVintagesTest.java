@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.api.timeseries;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import jdplus.toolkit.base.api.timeseries.TsData;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class TsPanelVintagesTest {
+
+    public TsPanelVintagesTest() {
+    }
+
+    @Test
+    public void testSeries() {
+        List<TsDataVintages<LocalDateTime>> all = panel(4);
+        TsPanelVintages<LocalDateTime> panel = TsPanelVintages.of(all);
+        assertEquals(4, panel.size());
+        int n = 0;
+        for (int s = 0; s < panel.size(); ++s) {
+            TsDataVintages<LocalDateTime> cur = all.get(s), copy = panel.series(s);
+            assertEquals(cur.getDomain(), panel.getDomain(s));
+            assertEquals(cur.getVintages(), copy.getVintages());
+            assertEquals(cur.current(), copy.current());
+            assertEquals(cur.preliminary(), copy.preliminary());
+            n += panel.count(s);
+        }
+        assertEquals(n, panel.count());
+    }
+
+    @Test
+    public void testVintage() {
+        List<TsDataVintages<LocalDateTime>> all = panel(3);
+        TsPanelVintages<LocalDateTime> panel = TsPanelVintages.of(all);
+        List<LocalDateTime> vintages = panel.getVintages();
+        for (int k = 0; k < vintages.size(); k += 17) {
+            TsData[] v = panel.vintage(k);
+            for (int s = 0; s < v.length; ++s) {
+                assertEquals(all.get(s).vintage(vintages.get(k)), v[s]);
+            }
+        }
+    }
+
+    @Test
+    public void testCrossSection() {
+        List<TsDataVintages<LocalDateTime>> all = panel(3);
+        TsPanelVintages<LocalDateTime> panel = TsPanelVintages.of(all);
+        List<LocalDateTime> vintages = panel.getVintages();
+        TsPeriod p = TsPeriod.monthly(2005, 3);
+        int k0 = vintages.size() / 3, k1 = vintages.size() - 1;
+        double[] v0 = panel.values(p, k0), rev = panel.revisions(p, k0, k1);
+        for (int s = 0; s < panel.size(); ++s) {
+            TsDataVintages<LocalDateTime> cur = all.get(s);
+            int i = cur.getStart().until(p);
+            assertEquals(cur.data(i, vintages.get(k0)), v0[s]);
+            assertEquals(cur.data(i, vintages.get(k1)) - cur.data(i, vintages.get(k0)), rev[s]);
+        }
+        assertTrue(Double.isNaN(panel.value(0, TsPeriod.monthly(1990, 1), k1)));
+    }
+
+    @Test
+    public void testUnknownVintage() {
+        List<TsDataVintages<LocalDateTime>> all = panel(2);
+        TsPanelVintages.Builder<LocalDateTime> builder = TsPanelVintages.builder(all.get(0).getVintages());
+        builder.add(all.get(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(all.get(1)));
+
+        // the rejected series leaves the builder unchanged
+        builder.add(all.get(0));
+        TsPanelVintages<LocalDateTime> panel = builder.build();
+        assertEquals(2, panel.size());
+        assertEquals(panel.count(0), panel.count(1));
+        assertEquals(all.get(0).length(), panel.length(1));
+        assertEquals(panel.getStart(0), panel.getStart(1));
+        assertEquals(2 * panel.count(0), panel.count());
+    }
+
+    @Test
+    public void testDuplicatedVintages() {
+        LocalDateTime t = LocalDateTime.of(2020, 1, 1, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> TsPanelVintages.builder(List.of(t, t.plusDays(1), t)));
+    }
+
+    private static List<TsDataVintages<LocalDateTime>> panel(int n) {
+        Random rnd = new Random(0);
+        List<TsDataVintages<LocalDateTime>> all = new ArrayList<>();
+        for (int s = 0; s < n; ++s) {
+            TsDataVintages.Builder<LocalDateTime> builder = TsDataVintages.<LocalDateTime>builder();
+            TsPeriod start = TsPeriod.monthly(2000, 1).plus(6 * s);
+            for (int i = 0; i < 60 + 12 * s; ++i) {
+                for (int k = 0; k < 5; ++k) {
+                    builder.add(start, start.end().plusDays(k * 20), rnd.nextDouble());
+                }
+                start = start.next();
+            }
+            all.add(builder.build());
+        }
+        return all;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.cache;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.timeseries.TsMatrix;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+
+/**
+ * Bounded cache of results, keyed by (fingerprint and dimensions of the data,
+ * analysis, parameters). The least recently used results are evicted when the
+ * estimated size of the cached results exceeds the capacity.
+ *
+ * The cache keeps its own copies of the mutable results (arrays, matrices),
+ * so that the callers can't modify the cached values: arrays are copied on
+ * each access and matrices are stored and returned in a read-only form, also
+ * when they have just been computed. The other results
+ * (RegressionBasedAnalysis, RegressionBasedTable) are immutable. The cache is
+ * thread-safe; the results are computed outside of any lock, so that the same
+ * result might be computed several times by concurrent threads.
+ *
+ * @author PALATEJ
+ */
+public final class ResultCache {
+
+    @lombok.Value
+    public static class Stats {
+
+        long hits, misses, evictions;
+        int entries;
+        /**
+         * Estimated size of the cached results (in bytes)
+         */
+        long size;
+        long capacity;
+    }
+
+    /**
+     * Identification of the input of an analysis. Inputs with different
+     * dimensions never share results, even if their fingerprints collide
+     */
+    @lombok.Value
+    public static class Input {
+
+        long fingerprint;
+        int rows, columns;
+
+        public static Input of(Matrix m) {
+            return new Input(fingerprint(m), m.getRowsCount(), m.getColumnsCount());
+        }
+    }
+
+    @lombok.Value
+    private static class Key {
+
+        Input input;
+        String analysis;
+        List<Object> parameters;
+    }
+
+    @lombok.AllArgsConstructor
+    private static class Entry {
+
+        final Object value;
+        final long weight;
+    }
+
+    // key + entry + map node
+    private static final long OVERHEAD = 128;
+
+    private final long capacity;
+    private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, .75f, true);
+    private long size, hits, misses, evictions;
+
+    /**
+     *
+     * @param capacity Maximum estimated size of the cached results (in bytes)
+     */
+    public ResultCache(long capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets a cached result or computes (and caches) it
+     *
+     * @param <T>
+     * @param input Identification of the data
+     * @param analysis Name of the analysis
+     * @param parameters Parameters of the analysis (with proper equals and
+     * hashCode)
+     * @param computer Computes the result if it is not in the cache. Null
+     * results are not cached
+     * @return
+     */
+    public <T> T get(Input input, String analysis, Object[] parameters, Supplier<T> computer) {
+        Key key = new Key(input, analysis, Arrays.asList(parameters.clone()));
+        synchronized (this) {
+            Entry entry = map.get(key);
+            if (entry != null) {
+                ++hits;
+                return (T) copy(entry.value);
+            }
+            ++misses;
+        }
+        T rslt = computer.get();
+        if (rslt == null) {
+            return null;
+        }
+        // the caller gets the same form of the result as on a hit
+        Object value = freeze(rslt);
+        put(key, value, OVERHEAD + weight(value));
+        return (T) copy(value);
+    }
+
+    private synchronized void put(Key key, Object value, long weight) {
+        if (weight > capacity) {
+            return;
+        }
+        Entry old = map.put(key, new Entry(value, weight));
+        if (old != null) {
+            size -= old.weight;
+        }
+        size += weight;
+        // the new entry is the most recent one
+        Iterator<Entry> iter = map.values().iterator();
+        while (size > capacity && iter.hasNext()) {
+            Entry cur = iter.next();
+            iter.remove();
+            size -= cur.weight;
+            ++evictions;
+        }
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        size = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, map.size(), size, capacity);
+    }
+
+    /**
+     * Content hash of a matrix (dimensions and values), for the results
+     * computed on matrices
+     *
+     * @param m
+     * @return
+     */
+    public static long fingerprint(Matrix m) {
+        int nr = m.getRowsCount(), nc = m.getColumnsCount();
+        long h = mix(((long) nr << 32) | nc);
+        for (int j = 0; j < nc; ++j) {
+            for (int i = 0; i < nr; ++i) {
+                h = mix(h + Double.doubleToLongBits(m.get(i, j)));
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Finalizer of SplitMix64
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Copy of a result that is stored in the cache
+     */
+    private static Object freeze(Object value) {
+        if (value instanceof double[] d) {
+            return d.clone();
+        } else if (value instanceof Matrix m) {
+            // read-only matrix on a copy of the data
+            return Matrix.of(m.toArray(), m.getRowsCount(), m.getColumnsCount());
+        } else if (value instanceof TsMatrix m) {
+            return new TsMatrix(m.getStart(), (Matrix) freeze(m.getMatrix()), m.getFields() == null ? null : m.getFields().clone());
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Copy of a cached result that is given to a caller
+     */
+    private static Object copy(Object value) {
+        if (value instanceof double[] d) {
+            return d.clone();
+        } else if (value instanceof TsMatrix m && m.getFields() != null) {
+            return new TsMatrix(m.getStart(), m.getMatrix(), m.getFields().clone());
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Estimated size of a result (in bytes)
+     */
+    private static long weight(Object value) {
+        if (value instanceof double[] d) {
+            return 16 + 8L * d.length;
+        } else if (value instanceof Matrix m) {
+            return 32 + 8L * m.getRowsCount() * m.getColumnsCount();
+        } else if (value instanceof TsMatrix m) {
+            return 64 + weight(m.getMatrix());
+        } else if (value instanceof RegressionBasedTable<?> t) {
+            return 128 + (8L * RegressionBasedTable.FIELDS_COUNT + 8) * t.size();
+        } else if (value instanceof RegressionBasedAnalysis<?> a) {
+            // revision, regression, coefficients and bias objects
+            return 64 + 512L * a.size();
+        } else {
+            return 64;
+        }
+    }
+}
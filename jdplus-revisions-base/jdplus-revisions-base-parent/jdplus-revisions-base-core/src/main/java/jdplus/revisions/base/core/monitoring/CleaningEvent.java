@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+/**
+ * Removal of the missing values of one or several series
+ *
+ * @author PALATEJ
+ */
+@jdk.jfr.Name("jdplus.revisions.Cleaning")
+@jdk.jfr.Label("Missing values cleaning")
+@jdk.jfr.Description("Removal of the missing values of one or several series")
+public final class CleaningEvent extends StageEvent {
+
+    @jdk.jfr.Label("Length")
+    int length;
+
+    @jdk.jfr.Label("Series")
+    int series;
+
+    @jdk.jfr.Label("Kept")
+    int kept;
+
+    public static CleaningEvent start() {
+        CleaningEvent event = new CleaningEvent();
+        event.open();
+        return event;
+    }
+
+    public void end(int length, int series, int kept) {
+        stop(Stage.CLEANING, 0);
+        if (shouldCommit()) {
+            this.length = length;
+            this.series = series;
+            this.kept = kept;
+            commit();
+        }
+    }
+}
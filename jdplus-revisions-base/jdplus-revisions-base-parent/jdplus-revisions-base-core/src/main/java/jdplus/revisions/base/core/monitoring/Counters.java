@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lightweight counters on the different stages of the analyses (number of
+ * calls, cumulated duration, number of items skipped because of errors).
+ * The counters are disabled by default; when they are disabled, the
+ * monitored code only reads a volatile flag.
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class Counters {
+
+    private volatile boolean enabled;
+
+    private final int N = Stage.values().length;
+    private final LongAdder[] COUNTS = adders(), NANOS = adders(), SKIPPED = adders();
+
+    private LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[Stage.values().length];
+        for (int i = 0; i < adders.length; ++i) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        Counters.enabled = enabled;
+    }
+
+    /**
+     * Starts the timing of a stage
+     *
+     * @return The current time (in nanoseconds) or 0 if the counters are
+     * disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Ends the timing of a stage
+     *
+     * @param stage The stage
+     * @param start The value returned by start()
+     * @param skipped The number of items skipped because of errors
+     */
+    public void stop(Stage stage, long start, int skipped) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        int pos = stage.ordinal();
+        COUNTS[pos].increment();
+        NANOS[pos].add(System.nanoTime() - start);
+        if (skipped != 0) {
+            SKIPPED[pos].add(skipped);
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < N; ++i) {
+            COUNTS[i].reset();
+            NANOS[i].reset();
+            SKIPPED[i].reset();
+        }
+    }
+
+    /**
+     * Current state of the counters. The snapshot is not atomic: the
+     * counters may be updated by concurrent analyses while it is taken.
+     *
+     * @return
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[N], nanos = new long[N], skipped = new long[N];
+        for (int i = 0; i < N; ++i) {
+            counts[i] = COUNTS[i].sum();
+            nanos[i] = NANOS[i].sum();
+            skipped[i] = SKIPPED[i].sum();
+        }
+        return new Snapshot(counts, nanos, skipped);
+    }
+
+    @lombok.AllArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    public static final class Snapshot {
+
+        private final long[] counts, nanos, skipped;
+
+        /**
+         * Number of executions of the stage
+         *
+         * @param stage
+         * @return
+         */
+        public long getCount(Stage stage) {
+            return counts[stage.ordinal()];
+        }
+
+        /**
+         * Cumulated duration of the executions of the stage
+         *
+         * @param stage
+         * @return
+         */
+        public Duration getDuration(Stage stage) {
+            return Duration.ofNanos(nanos[stage.ordinal()]);
+        }
+
+        /**
+         * Number of items skipped because of errors
+         *
+         * @param stage
+         * @return
+         */
+        public long getSkipped(Stage stage) {
+            return skipped[stage.ordinal()];
+        }
+
+        /**
+         * Difference between this snapshot and a previous one
+         *
+         * @param previous
+         * @return
+         */
+        public Snapshot minus(Snapshot previous) {
+            long[] c = counts.clone(), n = nanos.clone(), s = skipped.clone();
+            for (int i = 0; i < c.length; ++i) {
+                c[i] -= previous.counts[i];
+                n[i] -= previous.nanos[i];
+                s[i] -= previous.skipped[i];
+            }
+            return new Snapshot(c, n, s);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+/**
+ * Computation of a diagnostic
+ *
+ * @author PALATEJ
+ */
+@jdk.jfr.Name("jdplus.revisions.Diagnostic")
+@jdk.jfr.Label("Diagnostic")
+@jdk.jfr.Description("Computation of a diagnostic")
+public final class DiagnosticEvent extends StageEvent {
+
+    @jdk.jfr.Label("Test")
+    String test;
+
+    @jdk.jfr.Label("Observations")
+    int observations;
+
+    @jdk.jfr.Label("Failed")
+    boolean failed;
+
+    public static DiagnosticEvent start() {
+        DiagnosticEvent event = new DiagnosticEvent();
+        event.open();
+        return event;
+    }
+
+    public void end(String test, int observations, boolean failed) {
+        stop(Stage.DIAGNOSTIC, failed ? 1 : 0);
+        if (shouldCommit()) {
+            this.test = test;
+            this.observations = observations;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
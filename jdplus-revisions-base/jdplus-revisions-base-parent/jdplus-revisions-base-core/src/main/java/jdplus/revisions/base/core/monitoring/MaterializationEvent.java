@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+/**
+ * Extraction of vintages from the store
+ *
+ * @author PALATEJ
+ */
+@jdk.jfr.Name("jdplus.revisions.Materialization")
+@jdk.jfr.Label("Vintages materialization")
+@jdk.jfr.Description("Extraction of vintages from the store")
+public final class MaterializationEvent extends StageEvent {
+
+    @jdk.jfr.Label("Source")
+    String source;
+
+    @jdk.jfr.Label("Periods")
+    int periods;
+
+    @jdk.jfr.Label("Vintages")
+    int vintages;
+
+    public static MaterializationEvent start() {
+        MaterializationEvent event = new MaterializationEvent();
+        event.open();
+        return event;
+    }
+
+    public void end(String source, int periods, int vintages) {
+        stop(Stage.MATERIALIZATION, 0);
+        if (shouldCommit()) {
+            this.source = source;
+            this.periods = periods;
+            this.vintages = vintages;
+            commit();
+        }
+    }
+}
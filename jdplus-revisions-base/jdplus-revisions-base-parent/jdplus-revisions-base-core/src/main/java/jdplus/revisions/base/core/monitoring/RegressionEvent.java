@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+/**
+ * Estimation of a regression model
+ *
+ * @author PALATEJ
+ */
+@jdk.jfr.Name("jdplus.revisions.Regression")
+@jdk.jfr.Label("Regression")
+@jdk.jfr.Description("Estimation of a regression model")
+public final class RegressionEvent extends StageEvent {
+
+    @jdk.jfr.Label("Observations")
+    int observations;
+
+    @jdk.jfr.Label("Regressors")
+    int regressors;
+
+    @jdk.jfr.Label("Failed")
+    boolean failed;
+
+    public static RegressionEvent start() {
+        RegressionEvent event = new RegressionEvent();
+        event.open();
+        return event;
+    }
+
+    public void end(int observations, int regressors, boolean failed) {
+        stop(Stage.REGRESSION, failed ? 1 : 0);
+        if (shouldCommit()) {
+            this.observations = observations;
+            this.regressors = regressors;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
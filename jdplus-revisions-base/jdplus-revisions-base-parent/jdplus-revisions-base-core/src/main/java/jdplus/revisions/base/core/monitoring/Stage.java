@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+/**
+ * Stages of the analyses that are monitored (JFR events and counters)
+ *
+ * @author PALATEJ
+ */
+public enum Stage {
+    /**
+     * Extraction of vintages (or of tables of vintages) from the store
+     */
+    MATERIALIZATION,
+    /**
+     * Removal of the missing values
+     */
+    CLEANING,
+    /**
+     * Estimation of a regression model
+     */
+    REGRESSION,
+    /**
+     * Computation of a diagnostic (bias, unit roots, auto-correlation...)
+     */
+    DIAGNOSTIC,
+    /**
+     * Loop on the vintages (or on the pairs of vintages) of a table
+     */
+    SWEEP
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+/**
+ * Common part of the events of the revisions analyses. Each event also
+ * updates the corresponding counters.
+ *
+ * @author PALATEJ
+ */
+@jdk.jfr.Category({"JDemetra+", "Revisions"})
+abstract class StageEvent extends jdk.jfr.Event {
+
+    // not recorded by JFR
+    private transient long counter;
+
+    final void open() {
+        begin();
+        counter = Counters.start();
+    }
+
+    final void stop(Stage stage, int skipped) {
+        Counters.stop(stage, counter, skipped);
+    }
+}
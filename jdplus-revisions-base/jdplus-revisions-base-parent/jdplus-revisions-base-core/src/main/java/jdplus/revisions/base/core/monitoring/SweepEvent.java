@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+/**
+ * Loop on the vintages (or on the pairs of vintages) of a table
+ *
+ * @author PALATEJ
+ */
+@jdk.jfr.Name("jdplus.revisions.Sweep")
+@jdk.jfr.Label("Sweep")
+@jdk.jfr.Description("Loop on the vintages (or on the pairs of vintages) of a table")
+public final class SweepEvent extends StageEvent {
+
+    @jdk.jfr.Label("Function")
+    String function;
+
+    @jdk.jfr.Label("Rows")
+    int rows;
+
+    @jdk.jfr.Label("Columns")
+    int columns;
+
+    @jdk.jfr.Label("Items")
+    @jdk.jfr.Description("Number of vintages or of pairs of vintages")
+    int items;
+
+    @jdk.jfr.Label("Skipped")
+    @jdk.jfr.Description("Number of items skipped because of errors")
+    int skipped;
+
+    public static SweepEvent start() {
+        SweepEvent event = new SweepEvent();
+        event.open();
+        return event;
+    }
+
+    public void end(String function, int rows, int columns, int items, int skipped) {
+        stop(Stage.SWEEP, skipped);
+        if (shouldCommit()) {
+            this.function = function;
+            this.rows = rows;
+            this.columns = columns;
+            this.items = items;
+            this.skipped = skipped;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.panel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.parametric.Specification;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.api.timeseries.TsPanelVintages;
+import jdplus.revisions.base.api.timeseries.VintageSelectorType;
+import jdplus.revisions.base.core.parametric.Processor;
+import jdplus.toolkit.base.api.timeseries.TimeSelector;
+
+/**
+ * Applies the same analysis to a panel of series. The worker threads take
+ * the series one by one from a shared queue, the largest ones first, so that
+ * a few very long series don't delay the whole batch. The results are
+ * streamed to a sink as soon as they are available.
+ *
+ * @author PALATEJ
+ */
+@lombok.Value
+@lombok.Builder(toBuilder = true)
+public class PanelProcessor {
+
+    /**
+     * Receives the results of the different series. The methods are called
+     * from the worker threads, so that the sink must be thread-safe (except if
+     * the parallelism is 1).
+     *
+     * @param <R>
+     */
+    @FunctionalInterface
+    public static interface Sink<R> {
+
+        /**
+         *
+         * @param series Position of the series in the panel
+         * @param result Result of the analysis
+         */
+        void accept(int series, R result);
+
+        /**
+         * Called when the analysis of a series failed. By default, the
+         * exception is rethrown and the processing of the panel is aborted.
+         *
+         * @param series Position of the series in the panel
+         * @param err The exception
+         */
+        default void failed(int series, RuntimeException err) {
+            throw err;
+        }
+    }
+
+    /**
+     * Selection applied on each series before the analysis (null for the
+     * complete series)
+     */
+    Specification specification;
+
+    /**
+     * Number of worker threads. The series are processed in the calling
+     * thread when the parallelism is 1
+     */
+    int parallelism;
+
+    public static Builder builder() {
+        return new Builder()
+                .parallelism(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Vertical analysis (see Processor.verticalTable) of each series
+     *
+     * @param <K>
+     * @param first
+     * @param last
+     * @return
+     */
+    public static <K extends Object & Comparable> Function<TsDataVintages<K>, RegressionBasedTable<K>> verticalTable(K first, K last) {
+        return all -> Processor.verticalTable(all, first, last);
+    }
+
+    /**
+     * Diagonal analysis (see Processor.diagonalTable) of each series
+     *
+     * @param <K>
+     * @param first
+     * @param last
+     * @return
+     */
+    public static <K extends Object & Comparable> Function<TsDataVintages<K>, RegressionBasedTable<K>> diagonalTable(int first, int last) {
+        return all -> Processor.diagonalTable(all, first, last);
+    }
+
+    /**
+     * Processes a panel held in memory. The series are scheduled by
+     * decreasing size (number of periods x number of vintages)
+     *
+     * @param <K>
+     * @param <R>
+     * @param panel The series
+     * @param analysis The analysis applied on each series
+     * @param sink Receives the results
+     */
+    public <K extends Comparable, R> void process(List<TsDataVintages<K>> panel, Function<? super TsDataVintages<K>, ? extends R> analysis, Sink<? super R> sink) {
+        int n = panel.size();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; ++i) {
+            TsDataVintages<K> cur = panel.get(i);
+            long size = Math.min((long) cur.length() * cur.getVintages().size(), Integer.MAX_VALUE);
+            // decreasing sizes, then increasing positions
+            keys[i] = (Integer.MAX_VALUE - size) << 32 | i;
+        }
+        run(order(keys), panel::get, analysis, sink);
+    }
+
+    /**
+     * Processes a panel whose series are provided on demand (for instance
+     * by a panel store). The series are requested by the worker threads, in
+     * their natural order
+     *
+     * @param <K>
+     * @param <R>
+     * @param n The number of series
+     * @param panel Provides the series (must be thread-safe)
+     * @param analysis The analysis applied on each series
+     * @param sink Receives the results
+     */
+    public <K extends Comparable, R> void process(int n, IntFunction<TsDataVintages<K>> panel, Function<? super TsDataVintages<K>, ? extends R> analysis, Sink<? super R> sink) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; ++i) {
+            order[i] = i;
+        }
+        run(order, panel, analysis, sink);
+    }
+
+    /**
+     * Processes a panel sharing a dictionary of vintages. The series are
+     * materialized one by one by the worker threads, scheduled by decreasing
+     * number of observations
+     *
+     * @param <K>
+     * @param <R>
+     * @param panel The series
+     * @param analysis The analysis applied on each series
+     * @param sink Receives the results
+     */
+    public <K extends Comparable, R> void process(TsPanelVintages<K> panel, Function<? super TsDataVintages<K>, ? extends R> analysis, Sink<? super R> sink) {
+        int n = panel.size();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; ++i) {
+            keys[i] = (Integer.MAX_VALUE - (long) panel.count(i)) << 32 | i;
+        }
+        run(order(keys), panel::series, analysis, sink);
+    }
+
+    private static int[] order(long[] keys) {
+        Arrays.sort(keys);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    private <K extends Comparable, R> void run(int[] order, IntFunction<TsDataVintages<K>> panel, Function<? super TsDataVintages<K>, ? extends R> analysis, Sink<? super R> sink) {
+        if (order.length == 0) {
+            return;
+        }
+        Item<K, R> item = new Item<>(panel, analysis, sink);
+        if (parallelism <= 1 || order.length == 1) {
+            for (int i = 0; i < order.length; ++i) {
+                item.process(order[i]);
+            }
+        } else {
+            AtomicInteger next = new AtomicInteger();
+            Runnable worker = () -> {
+                try {
+                    for (int i = next.getAndIncrement(); i < order.length; i = next.getAndIncrement()) {
+                        item.process(order[i]);
+                    }
+                } catch (RuntimeException err) {
+                    // stops the other workers
+                    next.set(order.length);
+                    throw err;
+                }
+            };
+            int nworkers = Math.min(parallelism, order.length);
+            ForkJoinPool pool = new ForkJoinPool(nworkers);
+            try {
+                List<ForkJoinTask<?>> workers = new ArrayList<>(nworkers);
+                for (int i = 0; i < nworkers; ++i) {
+                    workers.add(pool.submit(worker));
+                }
+                for (ForkJoinTask<?> w : workers) {
+                    w.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private <K extends Comparable> TsDataVintages<K> select(TsDataVintages<K> all) {
+        if (specification == null) {
+            return all;
+        }
+        TimeSelector ts = specification.getTimeSelection();
+        boolean alldates = ts == null || ts.getType() == TimeSelector.SelectionType.All;
+        boolean allvintages = specification.getVintageSelection() == null
+                || specification.getVintageSelection().getType() == VintageSelectorType.All;
+        if (alldates && allvintages) {
+            return all;
+        }
+        return specification.select(all).toVintages();
+    }
+
+    private final class Item<K extends Comparable, R> {
+
+        private final IntFunction<TsDataVintages<K>> panel;
+        private final Function<? super TsDataVintages<K>, ? extends R> analysis;
+        private final Sink<? super R> sink;
+
+        private Item(IntFunction<TsDataVintages<K>> panel, Function<? super TsDataVintages<K>, ? extends R> analysis, Sink<? super R> sink) {
+            this.panel = panel;
+            this.analysis = analysis;
+            this.sink = sink;
+        }
+
+        private void process(int series) {
+            R rslt;
+            try {
+                rslt = analysis.apply(select(panel.apply(series)));
+            } catch (RuntimeException err) {
+                sink.failed(series, err);
+                return;
+            }
+            sink.accept(series, rslt);
+        }
+    }
+}
@@ -19,6 +19,8 @@ package jdplus.revisions.base.core.parametric;
 import jdplus.toolkit.base.api.data.DoubleSeq;
 import jdplus.toolkit.base.api.data.DoublesMath;
 import jdplus.revisions.base.api.parametric.AutoCorrelationTests;
+import jdplus.revisions.base.core.monitoring.DiagnosticEvent;
+import jdplus.revisions.base.core.monitoring.RegressionEvent;
 import jdplus.toolkit.base.api.stats.StatisticalTest;
 import jdplus.toolkit.base.core.stats.linearmodel.BreuschGodfrey;
 import jdplus.toolkit.base.core.stats.linearmodel.LeastSquaresResults;
@@ -41,7 +43,38 @@ public class AutoCorrelationTestsComputer {
                 .meanCorrection(true)
                 .build();
 
-        LeastSquaresResults lsr = Ols.compute(lm);
+        RegressionEvent event = RegressionEvent.start();
+        LeastSquaresResults lsr = null;
+        try {
+            lsr = Ols.compute(lm);
+        } finally {
+            event.end(lm.getObservationsCount(), 1, lsr == null);
+        }
+        return of(lsr, v0, v1, nbg, nlb);
+    }
+
+    /**
+     * Tests on an existing estimation
+     *
+     * @param lsr The results of the OLS estimation of v0(t)=a+b*v1(t)
+     * @param v0
+     * @param v1
+     * @param nbg Number of lags in Breusch-Godfrey test
+     * @param nlb Number of lags in Ljung-Box test
+     * @return
+     */
+    public AutoCorrelationTests of(LeastSquaresResults lsr, DoubleSeq v0, DoubleSeq v1, int nbg, int nlb) {
+        DiagnosticEvent event = DiagnosticEvent.start();
+        AutoCorrelationTests rslt = null;
+        try {
+            rslt = compute(lsr, v0, v1, nbg, nlb);
+            return rslt;
+        } finally {
+            event.end("auto-correlation", v0.length(), rslt == null);
+        }
+    }
+
+    private AutoCorrelationTests compute(LeastSquaresResults lsr, DoubleSeq v0, DoubleSeq v1, int nbg, int nlb) {
         
 //        Simulation of the bug in Eurostat version.
 //        Two problems: 
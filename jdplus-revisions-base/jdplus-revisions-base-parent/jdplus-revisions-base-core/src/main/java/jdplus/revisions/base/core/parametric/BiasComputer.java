@@ -18,6 +18,7 @@ package jdplus.revisions.base.core.parametric;
 
 import jdplus.toolkit.base.api.data.DoubleSeq;
 import jdplus.revisions.base.api.parametric.Bias;
+import jdplus.revisions.base.core.monitoring.DiagnosticEvent;
 import jdplus.toolkit.base.api.stats.AutoCovariances;
 import jdplus.toolkit.base.api.stats.ProbabilityType;
 import jdplus.toolkit.base.core.dstats.T;
@@ -38,6 +39,13 @@ public class BiasComputer {
      * @return
      */
     public Bias of(DoubleSeq revisions) {
+        DiagnosticEvent event = DiagnosticEvent.start();
+        Bias bias = compute(revisions);
+        event.end("bias", revisions.length(), bias == null);
+        return bias;
+    }
+
+    private Bias compute(DoubleSeq revisions) {
 
         Sample sample = Sample.build(revisions, true, Population.UNKNOWN);
         int n = sample.observationsCount();
@@ -51,7 +59,7 @@ public class BiasComputer {
             // stdev of the mean
             double sigma = Math.sqrt(v / n);
             double t = mu / sigma;
-            T tstat = new T(n - 1);
+            T tstat = Distributions.t(n - 1);
             // two-sided
             double pval = 2 * tstat.getProbability(Math.abs(t), ProbabilityType.Upper);
 
@@ -70,7 +78,7 @@ public class BiasComputer {
                     double neff = n * (1 - rho) / (1 + rho); // asymptotic number of obs 
                     // adjusted stdev of the mean
                     double sigmac = Math.sqrt(v / neff);
-                    tstat = new T(neff);
+                    tstat = Distributions.t(neff);
                     t = mu / sigmac;
                     pval = 2 * tstat.getProbability(Math.abs(t), ProbabilityType.Upper);
                     builder.adjustedSigma(sigmac)
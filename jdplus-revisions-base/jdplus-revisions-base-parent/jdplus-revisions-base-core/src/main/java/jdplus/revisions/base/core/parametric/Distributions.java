@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import jdplus.toolkit.base.api.stats.ProbabilityType;
+import jdplus.toolkit.base.core.dstats.F;
+import jdplus.toolkit.base.core.dstats.T;
+
+/**
+ * Shared T and F distributions. Only the distributions with integer degrees
+ * of freedom are kept (they take a few distinct values when we process the
+ * vintages of a series); the cache is bounded.
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class Distributions {
+
+    private static final int MAX_SIZE = 1024;
+
+    private static final Map<Integer, T> T_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Long, F> F_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Student distribution
+     *
+     * @param df Degrees of freedom
+     * @return
+     */
+    public T t(double df) {
+        int idf = (int) df;
+        if (idf != df) {
+            return new T(df);
+        }
+        return get(T_CACHE, idf, k -> new T(k));
+    }
+
+    /**
+     * Fisher distribution
+     *
+     * @param df1 Degrees of freedom (numerator)
+     * @param df2 Degrees of freedom (denominator)
+     * @return
+     */
+    public F f(double df1, double df2) {
+        int idf1 = (int) df1, idf2 = (int) df2;
+        if (idf1 != df1 || idf2 != df2) {
+            return new F(df1, df2);
+        }
+        return get(F_CACHE, ((long) idf1 << 32) | (idf2 & 0xffffffffL), k -> new F(idf1, idf2));
+    }
+
+    private <K, D> D get(Map<K, D> cache, K key, Function<K, D> fn) {
+        D d = cache.get(key);
+        if (d == null) {
+            if (cache.size() >= MAX_SIZE) {
+                cache.clear();
+            }
+            d = cache.computeIfAbsent(key, fn);
+        }
+        return d;
+    }
+
+    /**
+     * Two-sided p-values of a set of t-statistics
+     *
+     * @param df Degrees of freedom
+     * @param t The statistics
+     * @param rslt The p-values (same length as t, may be t itself)
+     */
+    public void twoSidedPvalues(double df, double[] t, double[] rslt) {
+        T dist = t(df);
+        for (int i = 0; i < t.length; ++i) {
+            double cur = t[i];
+            rslt[i] = Double.isFinite(cur) ? 2 * dist.getProbability(Math.abs(cur), ProbabilityType.Upper) : Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import jdplus.toolkit.base.api.data.DoubleSeq;
+
+/**
+ * Upfront checks on the data of the tests, so that degenerate problems
+ * (sparse vintages, constant series, collinear regressors) can be detected
+ * without going through an exception.
+ * <br>
+ * The checks return a status code, which is also used in the result tables
+ * of the R entry points (last column, 0 = valid row).
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class Feasibility {
+
+    /**
+     * Status codes
+     */
+    public static final int OK = 0, TOO_FEW_OBSERVATIONS = 1, CONSTANT = 2, SINGULAR = 3, FAILED = 4;
+
+    private static final double EPS = 1e-12;
+
+    /**
+     * Checks a single series
+     *
+     * @param y The series (without missing values)
+     * @param nmin Minimal number of observations
+     * @return
+     */
+    public int series(DoubleSeq y, int nmin) {
+        int n = y.length();
+        if (n < Math.max(nmin, 2)) {
+            return TOO_FEW_OBSERVATIONS;
+        }
+        return isConstant(y) ? CONSTANT : OK;
+    }
+
+    /**
+     * Checks a linear regression with intercept: y = a + b1*x1 + ... + bk*xk
+     *
+     * @param y The dependent variable (without missing values)
+     * @param nmin Minimal number of observations (the model itself needs at
+     * least k+2 observations)
+     * @param x The regressors (same length as y, without missing values)
+     * @return
+     */
+    public int regression(DoubleSeq y, int nmin, DoubleSeq... x) {
+        int n = y.length(), k = x.length;
+        if (n < Math.max(nmin, k + 2)) {
+            return TOO_FEW_OBSERVATIONS;
+        }
+        if (isConstant(y)) {
+            return CONSTANT;
+        }
+        return design(n, x);
+    }
+
+    /**
+     * Checks the design of a linear regression with intercept (number of
+     * observations and rank of the regressors). The dependent variable is not
+     * considered
+     *
+     * @param n The number of observations
+     * @param x The regressors (without missing values)
+     * @return
+     */
+    public int design(int n, DoubleSeq... x) {
+        int k = x.length;
+        if (n < k + 2) {
+            return TOO_FEW_OBSERVATIONS;
+        }
+        // modified Gram-Schmidt on the centered regressors
+        double[][] q = new double[k][];
+        for (int j = 0; j < k; ++j) {
+            double[] cur = x[j].toArray();
+            double ssq0 = center(cur);
+            if (isConstant(ssq0, x[j].sum() / n, n)) {
+                return CONSTANT;
+            }
+            double ssq = ssq0;
+            for (int l = 0; l < j; ++l) {
+                double[] ql = q[l];
+                double p = 0;
+                for (int i = 0; i < n; ++i) {
+                    p += cur[i] * ql[i];
+                }
+                ssq = 0;
+                for (int i = 0; i < n; ++i) {
+                    cur[i] -= p * ql[i];
+                    ssq += cur[i] * cur[i];
+                }
+            }
+            if (ssq <= 1e-9 * ssq0) {
+                return SINGULAR;
+            }
+            double s = Math.sqrt(ssq);
+            for (int i = 0; i < n; ++i) {
+                cur[i] /= s;
+            }
+            q[j] = cur;
+        }
+        return OK;
+    }
+
+    /**
+     * Checks a linear regression with intercept
+     *
+     * @param y
+     * @param x
+     * @return
+     */
+    public int regression(DoubleSeq y, DoubleSeq... x) {
+        return regression(y, 0, x);
+    }
+
+    /**
+     * Unit root tests (Dickey-Fuller with trend and intercept, augmented
+     * Dickey-Fuller with adfk lags)
+     *
+     * @param y
+     * @param adfk
+     * @return
+     */
+    public int unitRoot(DoubleSeq y, int adfk) {
+        return series(y, adf(2, adfk));
+    }
+
+    /**
+     * Minimal length of a series for an augmented Dickey-Fuller regression:
+     * dy(t) on the deterministic terms, y(t-1) and dy(t-1)...dy(t-adfk), with
+     * at least one degree of freedom left. The first adfk+1 observations are
+     * lost in the differencing.
+     *
+     * @param nterms Number of deterministic terms (constant, trend)
+     * @param adfk Number of lags
+     * @return
+     */
+    private int adf(int nterms, int adfk) {
+        int nregressors = nterms + 1 + adfk;
+        return adfk + 1 + nregressors + 1;
+    }
+
+    /**
+     * Tests on the residuals of y = a + b*x (Breusch-Godfrey with nbg lags,
+     * Ljung-Box with nlb auto-correlations)
+     *
+     * @param y
+     * @param x
+     * @param nbg
+     * @param nlb
+     * @return
+     */
+    public int autoCorrelation(DoubleSeq y, DoubleSeq x, int nbg, int nlb) {
+        return regression(y, Math.max(nbg + 4, nlb + 2), x);
+    }
+
+    /**
+     * Engle-Granger test (regression of y on x, augmented Dickey-Fuller test
+     * with adfk lags on the residuals)
+     *
+     * @param y
+     * @param x
+     * @param adfk
+     * @return
+     */
+    public int cointegration(DoubleSeq y, DoubleSeq x, int adfk) {
+        return regression(y, adf(1, adfk), x);
+    }
+
+    /**
+     * Johansen test on two series
+     *
+     * @param x
+     * @param y
+     * @param lag
+     * @return
+     */
+    public int vecm(DoubleSeq x, DoubleSeq y, int lag) {
+        return regression(y, 3 * lag + 3, x);
+    }
+
+    private boolean isConstant(DoubleSeq y) {
+        int n = y.length();
+        return isConstant(center(y.toArray()), y.sum() / n, n);
+    }
+
+    /**
+     * The variance is negligible in comparison with the raw sum of squares
+     *
+     * @param ssq Sum of squares of the centered data
+     * @param mean Mean of the data
+     * @param n Number of observations
+     * @return
+     */
+    private boolean isConstant(double ssq, double mean, int n) {
+        return ssq <= EPS * (ssq + n * mean * mean);
+    }
+
+    /**
+     * Removes the mean
+     *
+     * @param x
+     * @return The sum of squares of the centered data
+     */
+    private double center(double[] x) {
+        int n = x.length;
+        double m = 0;
+        for (int i = 0; i < n; ++i) {
+            m += x[i];
+        }
+        m /= n;
+        double ssq = 0;
+        for (int i = 0; i < n; ++i) {
+            x[i] -= m;
+            ssq += x[i] * x[i];
+        }
+        return ssq;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import java.util.ArrayList;
+import java.util.List;
+import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.parametric.RevisionAnalysis;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.toolkit.base.api.timeseries.TsData;
+
+/**
+ * State of a vertical analysis that can be updated when new vintages are
+ * released. The results of the previous vintages don't depend on the new
+ * ones, so that an update only computes the analysis of the new vintage
+ * (same results as Processor.verticalAnalysis on all the vintages).
+ *
+ * The state is usually created on the current database, without upper bound,
+ * and updated with each new publication:
+ * IncrementalAnalysis.of(all, first) then add(vintage, data)...
+ *
+ * @author PALATEJ
+ * @param <K>
+ */
+public final class IncrementalAnalysis<K extends Comparable> {
+
+    private final K first, last;
+    private final List<RevisionAnalysis<K>> revisions = new ArrayList<>();
+    private K current;
+    private TsData preliminary, prev;
+    private boolean closed;
+
+    /**
+     * Creates the state of the vertical analysis of the current vintages,
+     * open to the next ones
+     *
+     * @param <K>
+     * @param all The current vintages
+     * @param first First vintage (included). Null for the first available
+     * vintage
+     * @return
+     */
+    public static <K extends Object & Comparable> IncrementalAnalysis<K> of(TsDataVintages<K> all, K first) {
+        return of(all, first, null);
+    }
+
+    /**
+     * Creates the state of the vertical analysis of the current vintages
+     *
+     * @param <K>
+     * @param all The current vintages
+     * @param first First vintage (included). Null for the first available
+     * vintage
+     * @param last Last vintage (included). Null if the analysis is open to
+     * the next vintages
+     * @return
+     */
+    public static <K extends Object & Comparable> IncrementalAnalysis<K> of(TsDataVintages<K> all, K first, K last) {
+        IncrementalAnalysis<K> analysis = new IncrementalAnalysis<>(first, last);
+        for (K k : all.getVintages()) {
+            if (analysis.accepts(k)) {
+                analysis.add(k, all.vintage(k));
+            }
+        }
+        return analysis;
+    }
+
+    /**
+     * Creates an empty analysis
+     *
+     * @param first First vintage (included). Null for no lower bound
+     * @param last Last vintage (included). Null for no upper bound
+     */
+    public IncrementalAnalysis(K first, K last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    private boolean accepts(K vintage) {
+        return !closed && (first == null || vintage.compareTo(first) >= 0)
+                && (last == null || vintage.compareTo(last) <= 0);
+    }
+
+    /**
+     * Adds a new vintage. The vintages must be added in increasing order.
+     *
+     * @param vintage The new vintage
+     * @param data The series corresponding to the new vintage
+     * @return true if a new revision has been added to the analysis
+     */
+    public boolean add(K vintage, TsData data) {
+        if (current != null && vintage.compareTo(current) <= 0) {
+            throw new IllegalArgumentException("Vintages should be added in increasing order");
+        }
+        current = vintage;
+        if (data == null || !accepts(vintage)) {
+            return false;
+        }
+        if (preliminary == null) {
+            preliminary = data;
+            prev = data;
+            return false;
+        }
+        if (!Processor.verticalRevision(vintage, preliminary, prev, data,
+                (k, theil, regression, bias) -> revisions.add(Processor.revision(k, theil, regression, bias)))) {
+            closed = true;
+            return false;
+        }
+        prev = data;
+        return true;
+    }
+
+    /**
+     * Number of revisions
+     *
+     * @return
+     */
+    public int size() {
+        return revisions.size();
+    }
+
+    /**
+     * Last vintage added to the analysis
+     *
+     * @return
+     */
+    public K getCurrentVintage() {
+        return current;
+    }
+
+    /**
+     * The analysis corresponding to the vintages added so far
+     *
+     * @return
+     */
+    public RegressionBasedAnalysis<K> analysis() {
+        return RegressionBasedAnalysis.<K>builder()
+                .revisions(revisions)
+                .build();
+    }
+}
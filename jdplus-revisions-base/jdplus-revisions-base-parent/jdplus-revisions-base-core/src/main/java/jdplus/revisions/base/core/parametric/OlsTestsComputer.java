@@ -22,6 +22,8 @@ import jdplus.toolkit.base.api.math.Constants;
 import jdplus.revisions.base.api.parametric.Coefficient;
 import jdplus.revisions.base.api.parametric.OlsTests;
 import jdplus.revisions.base.api.parametric.RegressionTests;
+import jdplus.revisions.base.core.monitoring.DiagnosticEvent;
+import jdplus.revisions.base.core.monitoring.RegressionEvent;
 import jdplus.toolkit.base.api.stats.StatisticalTest;
 import jdplus.toolkit.base.core.data.DataBlock;
 import jdplus.toolkit.base.core.stats.linearmodel.HeteroskedasticityTest;
@@ -38,20 +40,54 @@ import jdplus.toolkit.base.core.stats.tests.JarqueBera;
 @lombok.experimental.UtilityClass
 public class OlsTestsComputer {
 
+    /**
+     * OLS estimation of y=a+b*x (with mean correction) and tests on the
+     * residuals
+     *
+     * @param y
+     * @param x
+     * @return null if the model can't be estimated
+     */
     public OlsTests of(DoubleSeq y, DoubleSeq... x) {
         // Skip meaningless models
         double ny = y.ssq();
         if (ny < Constants.getEpsilon()) {
             return null;
         }
-        OlsTests.Builder builder = OlsTests.builder();
         LinearModel lm = LinearModel.builder()
                 .y(y)
                 .meanCorrection(true)
                 .addX(x)
                 .build();
+        RegressionEvent event = RegressionEvent.start();
+        // Skip singular models without going through an exception
+        if (Feasibility.design(y.length(), x) != Feasibility.OK) {
+            event.end(y.length(), x.length, true);
+            return null;
+        }
+        LeastSquaresResults lsr;
+        try {
+            lsr = Ols.compute(lm);
+        } catch (EcoException err) {
+            event.end(y.length(), x.length, true);
+            return null;
+        }
+        event.end(y.length(), x.length, false);
+        return of(lm, lsr);
+    }
+
+    /**
+     * Tests on an existing estimation
+     *
+     * @param lm The model (with mean correction)
+     * @param lsr The results of the OLS estimation of the model
+     * @return null if the tests can't be computed
+     */
+    public OlsTests of(LinearModel lm, LeastSquaresResults lsr) {
+        DiagnosticEvent event = DiagnosticEvent.start();
+        boolean failed = false;
+        OlsTests.Builder builder = OlsTests.builder();
         try {
-            LeastSquaresResults lsr = Ols.compute(lm);
             DoubleSeq coef = lsr.getCoefficients();
             DataBlock diag = lsr.covariance().diagonal();
 
@@ -93,7 +129,7 @@ public class OlsTestsComputer {
                         .arch(new StatisticalTest(artest.getValue(), artest.getPvalue(), "Arch"));
             }
 
-            Coefficient[] c = new Coefficient[1 + x.length];
+            Coefficient[] c = new Coefficient[coef.length()];
             for (int i = 0; i < c.length; ++i) {
                 StatisticalTest t = lsr.Ttest(i);
                 c[i] = new Coefficient(coef.get(i), Math.sqrt(diag.get(i)), t.getValue(), t.getPvalue());
@@ -106,8 +142,10 @@ public class OlsTestsComputer {
                     .diagnostics(tbuilder.build());
 
         } catch (EcoException err) {
+            failed = true;
         }
+        event.end("ols", lm.getObservationsCount(), failed);
 
-        return builder.build();
+        return failed ? null : builder.build();
     }
 }
@@ -18,11 +18,16 @@ package jdplus.revisions.base.core.parametric;
 
 import jdplus.toolkit.base.api.data.DoubleSeq;
 import jdplus.revisions.base.api.parametric.Bias;
+import jdplus.revisions.base.api.parametric.OlsTests;
 import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
 import jdplus.revisions.base.api.parametric.RevisionAnalysis;
 import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.api.timeseries.TsMatrix;
+import jdplus.revisions.base.core.monitoring.MaterializationEvent;
+import jdplus.revisions.base.core.monitoring.SweepEvent;
 import jdplus.toolkit.base.api.timeseries.TsData;
-import jdplus.toolkit.base.api.timeseries.TsDomain;
+import java.util.ArrayList;
 import java.util.List;
 import jdplus.toolkit.base.core.stats.StatUtility;
 
@@ -33,82 +38,184 @@ import jdplus.toolkit.base.core.stats.StatUtility;
 @lombok.experimental.UtilityClass
 public class Processor {
 
+    /**
+     * Receives the results of the successive revisions
+     *
+     * @param <K>
+     */
+    @FunctionalInterface
+    public static interface RevisionConsumer<K> {
+
+        /**
+         *
+         * @param vintage The current vintage (null in diagonal analysis)
+         * @param theil Theil coefficient (computed between the first vintage
+         * and the current one)
+         * @param regression Ols regression between the first vintage and the
+         * current one
+         * @param bias Bias computed between the current vintage and the
+         * previous one. May be null
+         */
+        void accept(K vintage, double theil, OlsTests regression, Bias bias);
+    }
+
     public static <K extends Object & Comparable> RegressionBasedAnalysis<K> verticalAnalysis(TsDataVintages<K> all, K first, K last) {
-        RegressionBasedAnalysis.Builder builder = RegressionBasedAnalysis.builder();
+        RegressionBasedAnalysis.Builder<K> builder = RegressionBasedAnalysis.builder();
+        verticalAnalysis(all, first, last, (k, theil, regression, bias) -> builder.revision(revision(k, theil, regression, bias)));
+        return builder.build();
+    }
+
+    public static <K extends Object & Comparable> RegressionBasedTable<K> verticalTable(TsDataVintages<K> all, K first, K last) {
+        RegressionBasedTable.Builder<K> builder = RegressionBasedTable.builder(all.getVintages().size());
+        verticalAnalysis(all, first, last, builder::add);
+        return builder.build();
+    }
+
+    public static <K extends Object & Comparable> void verticalAnalysis(TsDataVintages<K> all, K first, K last, RevisionConsumer<K> consumer) {
+        SweepEvent sweep = SweepEvent.start();
         List<K> vintages = all.getVintages();
-        TsData preliminary = null;
-        TsData prev = null;
-        for (int i = 0; i < vintages.size(); ++i) {
-            K k = vintages.get(i);
+        // the vintages of the analysis are extracted in one pass
+        MaterializationEvent event = MaterializationEvent.start();
+        List<K> keys = new ArrayList<>();
+        List<TsData> data = new ArrayList<>();
+        int periods = 0;
+        for (K k : vintages) {
             if (k.compareTo(first) >= 0 && k.compareTo(last) <= 0) {
-                RevisionAnalysis.Builder<K> analysis = RevisionAnalysis.<K>builder()
-                        .vintage(k);
                 TsData cur = all.vintage(k);
-                if (cur == null) {
-                    continue;
+                if (cur != null) {
+                    keys.add(k);
+                    data.add(cur);
+                    periods = Math.max(periods, cur.length());
                 }
-                if (preliminary == null) {
-                    preliminary = cur;
-                    prev=cur;
-                } else {
-                    // common domain
-                    TsDomain common = cur.getDomain().intersection(preliminary.getDomain());
-                    if (common.length() < 3) {
-                        break;
-                    }
-                    DoubleSeq v0 = TsData.fitToDomain(preliminary, common).getValues(),
-                            v1 = TsData.fitToDomain(cur, common).getValues();
-                    // first Vi % V
-                    analysis.theilCoefficient(StatUtility.theilInequalityCoefficient(v1, v0))
-                            .regression(OlsTestsComputer.of(v1, v0));
-
-                    // than revisions
-                    DoubleSeq rev = TsData.subtract(cur, prev).getValues();
-                    Bias bias = BiasComputer.of(rev);
-                    if (bias != null) {
-                        analysis.bias(bias);
-                    }
-                    prev = cur;
-                    builder.revision(analysis.build());
+            }
+        }
+        event.end("vintages", periods, data.size());
+        int n = 0;
+        if (!data.isEmpty()) {
+            TsData preliminary = data.get(0), prev = preliminary;
+            for (int i = 1; i < data.size(); ++i) {
+                TsData cur = data.get(i);
+                if (!verticalRevision(keys.get(i), preliminary, prev, cur, consumer)) {
+                    break;
                 }
+                ++n;
+                prev = cur;
             }
         }
-        return builder.build();
+        sweep.end("verticalAnalysis", all.length(), vintages.size(), n, 0);
+    }
+
+    /**
+     * Analysis of a new vintage in a vertical analysis
+     *
+     * @param <K>
+     * @param k The new vintage
+     * @param preliminary The first vintage of the analysis
+     * @param prev The previous vintage
+     * @param cur The data of the new vintage
+     * @param consumer
+     * @return false if the new vintage ends the analysis (too short common
+     * domain with the first vintage)
+     */
+    <K> boolean verticalRevision(K k, TsData preliminary, TsData prev, TsData cur, RevisionConsumer<K> consumer) {
+        return analyze(k, preliminary, prev, cur, 3, consumer);
+    }
+
+    /**
+     * The series are aligned by means of offsets on their values (views, no
+     * copy)
+     *
+     * @param minLength Minimal length of the common domain of preliminary and
+     * cur
+     * @return false if the common domain is too short
+     */
+    private <K> boolean analyze(K k, TsData preliminary, TsData prev, TsData cur, int minLength, RevisionConsumer<K> consumer) {
+        // common domain (positions in preliminary)
+        int del = preliminary.getStart().until(cur.getStart());
+        int beg = Math.max(0, del), end = Math.min(preliminary.length(), del + cur.length());
+        if (end - beg < minLength) {
+            return false;
+        }
+        DoubleSeq v0 = preliminary.getValues().extract(beg, end - beg),
+                v1 = cur.getValues().extract(beg - del, end - beg);
+        // first Vi % V
+        double theil = StatUtility.theilInequalityCoefficient(v1, v0);
+        OlsTests regression = OlsTestsComputer.of(v1, v0);
+
+        // than revisions (positions in prev)
+        del = prev.getStart().until(cur.getStart());
+        beg = Math.max(0, del);
+        end = Math.max(beg, Math.min(prev.length(), del + cur.length()));
+        DoubleSeq p = prev.getValues().extract(beg, end - beg),
+                c = cur.getValues().extract(beg - del, end - beg);
+        DoubleSeq rev = DoubleSeq.onMapping(end - beg, i -> c.get(i) - p.get(i));
+        Bias bias = BiasComputer.of(rev);
+        consumer.accept(k, theil, regression, bias);
+        return true;
     }
 
     public static <K extends Object & Comparable> RegressionBasedAnalysis<K> diagonalAnalysis(TsDataVintages<K> all, int first, int last) {
-        RegressionBasedAnalysis.Builder builder = RegressionBasedAnalysis.builder();
-        TsData preliminary = all.vintage(first);
-        TsData prev = preliminary;
-        for (int i = first+1; i <= last; ++i) {
-
-            RevisionAnalysis.Builder<K> analysis = RevisionAnalysis.<K>builder();
-            TsData cur = all.vintage(i);
-            if (cur == null) {
-                break;
-            }
+        RegressionBasedAnalysis.Builder<K> builder = RegressionBasedAnalysis.builder();
+        diagonalAnalysis(all, first, last, (k, theil, regression, bias) -> builder.revision(revision(k, theil, regression, bias)));
+        return builder.build();
+    }
 
-            // common domain
-            TsDomain common = cur.getDomain().intersection(preliminary.getDomain());
-            if (common.isEmpty()) {
-                break;
-            }
-            DoubleSeq v0 = TsData.fitToDomain(preliminary, common).getValues(),
-                    v1 = TsData.fitToDomain(cur, common).getValues();
-            // first Vi % V
-            analysis.theilCoefficient(StatUtility.theilInequalityCoefficient(v1, v0))
-                    .regression(OlsTestsComputer.of(v1, v0));
-
-            // than revisions
-            DoubleSeq rev = TsData.subtract(cur, prev).getValues();
-            Bias bias = BiasComputer.of(rev);
-            if (bias != null) {
-                analysis.bias(bias);
+    public static <K extends Object & Comparable> RegressionBasedTable<K> diagonalTable(TsDataVintages<K> all, int first, int last) {
+        RegressionBasedTable.Builder<K> builder = RegressionBasedTable.builder(last - first);
+        diagonalAnalysis(all, first, last, builder::add);
+        return builder.build();
+    }
+
+    public static <K extends Object & Comparable> void diagonalAnalysis(TsDataVintages<K> all, int first, int last, RevisionConsumer<K> consumer) {
+        SweepEvent sweep = SweepEvent.start();
+        // all the releases are built in one pass
+        MaterializationEvent event = MaterializationEvent.start();
+        TsMatrix releases = all.releases();
+        event.end("releases", all.length(), releases == null ? 0 : releases.getMatrix().getColumnsCount());
+        TsData preliminary = release(releases, first);
+        int n = 0;
+        if (preliminary != null) {
+            TsData prev = preliminary;
+            for (int i = first + 1; i <= last; ++i) {
+
+                TsData cur = release(releases, i);
+                if (cur == null) {
+                    break;
+                }
+
+                if (!analyze(null, preliminary, prev, cur, 1, consumer)) {
+                    break;
+                }
+                ++n;
+                prev = cur;
             }
-            prev = cur;
-            builder.revision(analysis.build());
         }
-        return builder.build();
+        sweep.end("diagonalAnalysis", all.length(), all.getVintages().size(), n, 0);
+    }
+
+    /**
+     * Same as TsDataVintages.vintage(pos)
+     *
+     * @param releases
+     * @param pos
+     * @return null if the release doesn't exist
+     */
+    private TsData release(TsMatrix releases, int pos) {
+        if (releases == null || pos < 0 || pos >= releases.getMatrix().getColumnsCount()) {
+            return null;
+        }
+        return TsData.of(releases.getStart(), releases.getMatrix().column(pos)).cleanExtremities();
+    }
+
+    <K> RevisionAnalysis<K> revision(K vintage, double theil, OlsTests regression, Bias bias) {
+        RevisionAnalysis.Builder<K> analysis = RevisionAnalysis.<K>builder()
+                .vintage(vintage)
+                .theilCoefficient(theil)
+                .regression(regression);
+        if (bias != null) {
+            analysis.bias(bias);
+        }
+        return analysis.build();
     }
 
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import jdplus.toolkit.base.api.data.DoubleSeq;
+import jdplus.toolkit.base.api.eco.EcoException;
+import jdplus.revisions.base.api.parametric.AutoCorrelationTests;
+import jdplus.revisions.base.api.parametric.RegressionAutoCorrelation;
+import jdplus.revisions.base.core.monitoring.RegressionEvent;
+import jdplus.toolkit.base.core.stats.linearmodel.LeastSquaresResults;
+import jdplus.toolkit.base.core.stats.linearmodel.LinearModel;
+import jdplus.toolkit.base.core.stats.linearmodel.Ols;
+
+/**
+ * OlsTestsComputer and AutoCorrelationTestsComputer on the same estimation.
+ * The data are checked (see Feasibility) before the model is estimated, and
+ * the model is estimated only once.
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class RegressionAutoCorrelationComputer {
+
+    /**
+     * y(t)=a+b*x(t)
+     *
+     * @param y
+     * @param x
+     * @param nbg Number of lags in Breusch-Godfrey test
+     * @param nlb Number of lags in Ljung-Box test
+     * @return null if the model can't be estimated
+     */
+    public RegressionAutoCorrelation of(DoubleSeq y, DoubleSeq x, int nbg, int nlb) {
+        LinearModel lm = model(y, x, nbg, nlb);
+        LeastSquaresResults lsr = lm == null ? null : estimate(lm);
+        if (lsr == null) {
+            return null;
+        }
+        return RegressionAutoCorrelation.builder()
+                .regression(OlsTestsComputer.of(lm, lsr))
+                .autoCorrelation(AutoCorrelationTestsComputer.of(lsr, y, x, nbg, nlb))
+                .build();
+    }
+
+    /**
+     * Auto-correlation tests on the residuals of y(t)=a+b*x(t), without the
+     * other tests on the regression
+     *
+     * @param y
+     * @param x
+     * @param nbg Number of lags in Breusch-Godfrey test
+     * @param nlb Number of lags in Ljung-Box test
+     * @return null if the model can't be estimated
+     */
+    public AutoCorrelationTests autoCorrelation(DoubleSeq y, DoubleSeq x, int nbg, int nlb) {
+        LinearModel lm = model(y, x, nbg, nlb);
+        LeastSquaresResults lsr = lm == null ? null : estimate(lm);
+        return lsr == null ? null : AutoCorrelationTestsComputer.of(lsr, y, x, nbg, nlb);
+    }
+
+    private LinearModel model(DoubleSeq y, DoubleSeq x, int nbg, int nlb) {
+        // Skip meaningless models (too short, constant, singular)
+        if (Feasibility.autoCorrelation(y, x, nbg, nlb) != Feasibility.OK) {
+            return null;
+        }
+        return LinearModel.builder()
+                .y(y)
+                .meanCorrection(true)
+                .addX(x)
+                .build();
+    }
+
+    private LeastSquaresResults estimate(LinearModel lm) {
+        RegressionEvent event = RegressionEvent.start();
+        try {
+            LeastSquaresResults lsr = Ols.compute(lm);
+            event.end(lm.getObservationsCount(), 1, false);
+            return lsr;
+        } catch (EcoException err) {
+            event.end(lm.getObservationsCount(), 1, true);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.api.timeseries.TsMatrix;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+import jdplus.toolkit.base.api.stats.ProbabilityType;
+import jdplus.toolkit.base.api.timeseries.TsData;
+import jdplus.toolkit.base.api.timeseries.TsDomain;
+
+/**
+ * Bias, Theil coefficient and slope/drift regression (l(t)=a+b*p(t)) on a
+ * rolling window of periods. The sums needed by the statistics are updated
+ * when the window moves, so that the whole profile is computed in one pass.
+ * Periods with missing values are skipped. The results correspond to
+ * BiasComputer, StatUtility.theilInequalityCoefficient and the main
+ * results of OlsTestsComputer (the diagnostics on the residuals are not
+ * available).
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class RollingAnalysis {
+
+    /**
+     * Positions of the different fields
+     */
+    public static final int N = 0, THEIL = 1,
+            BIAS_MU = 2, BIAS_SIGMA = 3, BIAS_T = 4, BIAS_TPVALUE = 5,
+            BIAS_AR = 6, BIAS_ADJUSTEDSIGMA = 7, BIAS_ADJUSTEDT = 8, BIAS_ADJUSTEDTPVALUE = 9,
+            R2 = 10, F = 11,
+            B0 = 12, B0_STDEV = 13, B0_PVALUE = 14,
+            B1 = 15, B1_STDEV = 16, B1_PVALUE = 17;
+
+    public static final int FIELDS_COUNT = 18;
+
+    private static final String[] FIELDS = new String[]{
+        "n", "theil",
+        "bias.mu", "bias.sigma", "bias.t", "bias.tpvalue",
+        "bias.ar", "bias.adjustedsigma", "bias.adjustedt", "bias.adjustedtpvalue",
+        "R2", "F",
+        "b0", "b0.stdev", "b0.pvalue",
+        "b1", "b1.stdev", "b1.pvalue"
+    };
+
+    /**
+     * Rolling analysis of the revisions between the preliminary and the
+     * current estimates
+     *
+     * @param <K>
+     * @param all The vintages
+     * @param window Number of periods in the window (should be &ge 3)
+     * @return
+     */
+    public <K extends Comparable> TsMatrix of(TsDataVintages<K> all, int window) {
+        return of(all.preliminary(), all.current(), window);
+    }
+
+    /**
+     * Rolling analysis of the revisions l-p. The k-th row of the result
+     * corresponds to the window ending at the k-th period of the result
+     *
+     * @param p Preliminary estimates
+     * @param l Later estimates
+     * @param window Number of periods in the window (should be &ge 3)
+     * @return null if the common domain of p and l is shorter than the window
+     */
+    public TsMatrix of(TsData p, TsData l, int window) {
+        if (window < 3) {
+            throw new IllegalArgumentException("window should be >= 3");
+        }
+        TsDomain common = p.getDomain().intersection(l.getDomain());
+        int n = common.length() - window + 1;
+        if (n <= 0) {
+            return null;
+        }
+        Sums sums = new Sums(TsData.fitToDomain(p, common).getValues().toArray(),
+                TsData.fitToDomain(l, common).getValues().toArray());
+        double[] rslt = new double[n * FIELDS_COUNT];
+        for (int i = 0; i < window - 1; ++i) {
+            sums.add();
+        }
+        for (int i = 0; i < n; ++i) {
+            sums.add();
+            sums.fill(rslt, i, n);
+            sums.remove();
+        }
+        return new TsMatrix(common.get(window - 1), Matrix.of(rslt, n, FIELDS_COUNT), FIELDS.clone());
+    }
+
+    /**
+     * Sums on the window [lo, hi[. The data are shifted by their first
+     * (finite) values to limit the cancellation errors
+     */
+    private static class Sums {
+
+        private final double[] p, l;
+        private final double kp, kl;
+        private int lo, hi;
+        // pairs (p, l)
+        private int n;
+        private double sp, sl, spp, sll, spl, sr, srr;
+        // consecutive revisions (r(t), r(t+1))
+        private int m;
+        private double sr0, sr1, sr01;
+
+        Sums(double[] p, double[] l) {
+            this.p = p;
+            this.l = l;
+            int i = 0;
+            while (i < p.length && !valid(i)) {
+                ++i;
+            }
+            kp = i < p.length ? p[i] : 0;
+            kl = i < p.length ? l[i] : 0;
+        }
+
+        private boolean valid(int i) {
+            return Double.isFinite(p[i]) && Double.isFinite(l[i]);
+        }
+
+        private double r(int i) {
+            return (l[i] - kl) - (p[i] - kp);
+        }
+
+        void add() {
+            int i = hi++;
+            update(i, 1);
+            if (i > lo) {
+                updatePair(i - 1, 1);
+            }
+        }
+
+        void remove() {
+            int i = lo++;
+            update(i, -1);
+            if (lo < hi) {
+                updatePair(i, -1);
+            }
+        }
+
+        private void update(int i, int sign) {
+            if (!valid(i)) {
+                return;
+            }
+            double x = p[i] - kp, y = l[i] - kl, r = y - x;
+            n += sign;
+            sp += sign * x;
+            sl += sign * y;
+            spp += sign * x * x;
+            sll += sign * y * y;
+            spl += sign * x * y;
+            sr += sign * r;
+            srr += sign * r * r;
+        }
+
+        private void updatePair(int i, int sign) {
+            if (!valid(i) || !valid(i + 1)) {
+                return;
+            }
+            double r0 = r(i), r1 = r(i + 1);
+            m += sign;
+            sr0 += sign * r0;
+            sr1 += sign * r1;
+            sr01 += sign * r0 * r1;
+        }
+
+        void fill(double[] rslt, int row, int nrows) {
+            for (int j = 0; j < FIELDS_COUNT; ++j) {
+                rslt[row + j * nrows] = Double.NaN;
+            }
+            rslt[row + N * nrows] = n;
+            if (n == 0) {
+                return;
+            }
+            // Theil (on the original data)
+            double kr = kl - kp;
+            double ssqp = spp + 2 * kp * sp + n * kp * kp;
+            double ssql = sll + 2 * kl * sl + n * kl * kl;
+            double ssqr = srr + 2 * kr * sr + n * kr * kr;
+            rslt[row + THEIL * nrows] = Math.sqrt(ssqr) / (Math.sqrt(ssql) + Math.sqrt(ssqp));
+            if (n < 2) {
+                return;
+            }
+            // Bias
+            double mur = sr / n;
+            double c0 = Math.max(srr - n * mur * mur, 0);
+            double v = c0 / (n - 1);
+            double sigma = Math.sqrt(v / n);
+            double mu = mur + kr;
+            double t = mu / sigma;
+            rslt[row + BIAS_MU * nrows] = mu;
+            rslt[row + BIAS_SIGMA * nrows] = sigma;
+            rslt[row + BIAS_T * nrows] = t;
+            rslt[row + BIAS_TPVALUE * nrows] = pvalue(n - 1, t);
+            if (n < 3) {
+                return;
+            }
+            double c1 = sr01 - mur * (sr0 + sr1) + m * mur * mur;
+            double rho = c1 / c0;
+            rslt[row + BIAS_AR * nrows] = rho;
+            if (Math.abs(rho) < 1) {
+                double neff = n * (1 - rho) / (1 + rho);
+                double sigmac = Math.sqrt(v / neff);
+                double tc = mu / sigmac;
+                rslt[row + BIAS_ADJUSTEDSIGMA * nrows] = sigmac;
+                rslt[row + BIAS_ADJUSTEDT * nrows] = tc;
+                rslt[row + BIAS_ADJUSTEDTPVALUE * nrows] = pvalue(neff, tc);
+            }
+            // Regression l=b0+b1*p
+            double mp = sp / n, ml = sl / n;
+            double sxx = spp - n * mp * mp, syy = sll - n * ml * ml, sxy = spl - n * mp * ml;
+            if (sxx <= 0 || syy <= 0) {
+                return;
+            }
+            double b1 = sxy / sxx;
+            double sse = Math.max(syy - b1 * sxy, 0);
+            double s2 = sse / (n - 2);
+            double mpo = mp + kp;
+            double b0 = ml + kl - b1 * mpo;
+            double se1 = Math.sqrt(s2 / sxx), se0 = Math.sqrt(s2 * (1.0 / n + mpo * mpo / sxx));
+            rslt[row + R2 * nrows] = 1 - sse / syy;
+            rslt[row + F * nrows] = (syy - sse) / s2;
+            rslt[row + B0 * nrows] = b0;
+            rslt[row + B0_STDEV * nrows] = se0;
+            rslt[row + B0_PVALUE * nrows] = pvalue(n - 2, b0 / se0);
+            rslt[row + B1 * nrows] = b1;
+            rslt[row + B1_STDEV * nrows] = se1;
+            rslt[row + B1_PVALUE * nrows] = pvalue(n - 2, b1 / se1);
+        }
+
+        private double pvalue(double df, double t) {
+            return 2 * Distributions.t(df).getProbability(Math.abs(t), ProbabilityType.Upper);
+        }
+    }
+}
@@ -17,14 +17,12 @@
 package jdplus.revisions.base.core.parametric;
 
 import jdplus.toolkit.base.api.data.DoubleSeq;
-import jdplus.toolkit.base.api.data.DoublesMath;
 import jdplus.toolkit.base.api.math.Constants;
 import jdplus.revisions.base.api.parametric.SignalNoise;
+import jdplus.revisions.base.core.monitoring.DiagnosticEvent;
 import jdplus.toolkit.base.api.stats.ProbabilityType;
+import jdplus.toolkit.base.api.stats.StatException;
 import jdplus.toolkit.base.core.dstats.F;
-import jdplus.toolkit.base.core.stats.linearmodel.LeastSquaresResults;
-import jdplus.toolkit.base.core.stats.linearmodel.LinearModel;
-import jdplus.toolkit.base.core.stats.linearmodel.Ols;
 
 /**
  *
@@ -33,45 +31,74 @@ import jdplus.toolkit.base.core.stats.linearmodel.Ols;
 @lombok.experimental.UtilityClass
 public class SignalNoiseComputer {
 
+    /**
+     * News/noise regressions of the revisions r=l-p on l and on p. Both
+     * regressions (with intercept) are computed in a single pass on the
+     * data; pairs with missing values are skipped
+     *
+     * @param p The preliminary estimates
+     * @param l The later estimates
+     * @return null if the revisions are (almost) nil
+     */
     public SignalNoise of(DoubleSeq p, DoubleSeq l) {
-        DoubleSeq r=DoublesMath.subtract(l, p);
+        int len = p.length();
+        if (l.length() != len) {
+            throw new StatException("Non compatible data");
+        }
+        DiagnosticEvent event = DiagnosticEvent.start();
+        SignalNoise rslt = compute(p, l, len);
+        event.end("signal/noise", len, rslt == null);
+        return rslt;
+    }
+
+    private SignalNoise compute(DoubleSeq p, DoubleSeq l, int len) {
+        // means and co-moments of (r, l, p), updated in a single pass
+        int n = 0;
+        double ssq = 0, mr = 0, ml = 0, mp = 0;
+        double crr = 0, cll = 0, cpp = 0, crl = 0, crp = 0;
+        for (int i = 0; i < len; ++i) {
+            double pcur = p.get(i), lcur = l.get(i);
+            if (!Double.isFinite(pcur) || !Double.isFinite(lcur)) {
+                continue;
+            }
+            double rcur = lcur - pcur;
+            ssq += rcur * rcur;
+            ++n;
+            double dr = rcur - mr, dl = lcur - ml, dp = pcur - mp;
+            mr += dr / n;
+            ml += dl / n;
+            mp += dp / n;
+            double el = lcur - ml, ep = pcur - mp;
+            crr += dr * (rcur - mr);
+            cll += dl * el;
+            cpp += dp * ep;
+            crl += dr * el;
+            crp += dr * ep;
+        }
         // Skip meaningless models
-        double nr = r.ssq();
-        if (nr < Constants.getEpsilon()) {
+        if (ssq < Constants.getEpsilon()) {
             return null;
         }
-        int n=r.length();
         SignalNoise.Builder builder = SignalNoise.builder();
-        LinearModel lm = LinearModel.builder()
-                .y(r)
-                .meanCorrection(true)
-                .addX(l)
-                .build();
-        try {
-            LeastSquaresResults lsr = Ols.compute(lm);
-            F f=new F(2, n-2);
-            double fval=lsr.getR2()*n;
-            builder.newsR2(lsr.getR2())
+        if (n <= 2 || crr <= 0) {
+            return builder.build();
+        }
+        F f = Distributions.f(2, n - 2);
+        if (cll > 0) {
+            double r2 = crl * crl / (crr * cll);
+            double fval = r2 * n;
+            builder.newsR2(r2)
                     .newsF(fval)
                     .newsPvalue(f.getProbability(fval, ProbabilityType.Upper));
-        }catch (Exception err){
         }
-        lm = LinearModel.builder()
-                .y(r)
-                .meanCorrection(true)
-                .addX(p)
-                .build();
-        try {
-            LeastSquaresResults lsr = Ols.compute(lm);
-            F f=new F(2, n-2);
-            double fval=lsr.getR2()*n;
-            builder.noiseR2(lsr.getR2())
+        if (cpp > 0) {
+            double r2 = crp * crp / (crr * cpp);
+            double fval = r2 * n;
+            builder.noiseR2(r2)
                     .noiseF(fval)
                     .noisePvalue(f.getProbability(fval, ProbabilityType.Upper));
-        }catch (Exception err){
-            
         }
         return builder.build();
     }
-   
+
 }
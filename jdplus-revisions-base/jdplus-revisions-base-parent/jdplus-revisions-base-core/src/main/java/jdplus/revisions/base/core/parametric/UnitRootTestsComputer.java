@@ -16,18 +16,43 @@
  */
 package jdplus.revisions.base.core.parametric;
 
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 import jdplus.toolkit.base.api.data.DoubleSeq;
 import jdplus.revisions.base.api.parametric.UnitRoot;
+import jdplus.revisions.base.core.monitoring.DiagnosticEvent;
+import jdplus.revisions.base.core.treatment.PreTreatment;
+import jdplus.toolkit.base.core.data.DataBlock;
 import jdplus.toolkit.base.core.stats.tests.DickeyFuller;
 
 /**
+ * Unit root tests (Dickey-Fuller, Dickey-Fuller with trend and intercept,
+ * augmented Dickey-Fuller, Philips-Perron). Each test is estimated
+ * separately; of(IntFunction, int, int, boolean) only sweeps a set of series,
+ * possibly in parallel.
  *
  * @author PALATEJ
  */
 @lombok.experimental.UtilityClass
 public class UnitRootTestsComputer {
 
+    /**
+     * Number of blocks of series per worker thread in the parallel sweep
+     */
+    private final int BLOCKS_PER_THREAD = 4;
+
     public UnitRoot of(DoubleSeq y, int adfk) {
+        DiagnosticEvent event = DiagnosticEvent.start();
+        UnitRoot rslt = null;
+        try {
+            rslt = compute(y, adfk);
+            return rslt;
+        } finally {
+            event.end("unit roots", y.length(), rslt == null);
+        }
+    }
+
+    private UnitRoot compute(DoubleSeq y, int adfk) {
 
         // dy(t)=a*y(t-1)+e
         DickeyFuller df = DickeyFuller.builder()
@@ -62,4 +87,66 @@ public class UnitRootTestsComputer {
                 .build();
 
     }
+
+    /**
+     * Unit root tests on a set of series. The missing values of each series
+     * are removed before the computation
+     *
+     * @param series The series
+     * @param n The number of series
+     * @param adfk Number of lags in augmented dickey-fuller test
+     * @param parallel Series are processed in parallel
+     * @return The tests, in the order of the series. A null element means
+     * that the tests failed for the corresponding series
+     */
+    public UnitRoot[] of(IntFunction<DoubleSeq> series, int n, int adfk, boolean parallel) {
+        return of(series, n, adfk, parallel, null);
+    }
+
+    /**
+     * Same as of(series, n, adfk, parallel). Series that don't pass the
+     * feasibility checks are not computed
+     *
+     * @param series The series
+     * @param n The number of series
+     * @param adfk Number of lags in augmented dickey-fuller test
+     * @param parallel Series are processed in parallel
+     * @param status Buffer that will contain the status of each series (see
+     * Feasibility). May be null
+     * @return
+     */
+    public UnitRoot[] of(IntFunction<DoubleSeq> series, int n, int adfk, boolean parallel, int[] status) {
+        UnitRoot[] rslt = new UnitRoot[n];
+        // The series are split in contiguous blocks, each block reusing its own
+        // buffer for the cleaned data
+        int nblocks = parallel ? Math.min(n, BLOCKS_PER_THREAD * Runtime.getRuntime().availableProcessors()) : Math.min(n, 1);
+        IntStream blocks = IntStream.range(0, nblocks);
+        if (parallel) {
+            blocks = blocks.parallel();
+        }
+        blocks.forEach(b -> {
+            double[] y = new double[0];
+            for (int i = n * b / nblocks, end = n * (b + 1) / nblocks; i < end; ++i) {
+                int cur = Feasibility.FAILED;
+                try {
+                    DoubleSeq s = series.apply(i);
+                    if (y.length < s.length()) {
+                        y = new double[s.length()];
+                    }
+                    int m = PreTreatment.cleanNaN(s, y);
+                    DataBlock data = DataBlock.of(y, 0, m);
+                    cur = Feasibility.unitRoot(data, adfk);
+                    if (cur == Feasibility.OK) {
+                        rslt[i] = of(data, adfk);
+                    }
+                } catch (Exception err) {
+                    cur = Feasibility.FAILED;
+                }
+                if (status != null) {
+                    status[i] = cur;
+                }
+            }
+        });
+        return rslt;
+    }
 }
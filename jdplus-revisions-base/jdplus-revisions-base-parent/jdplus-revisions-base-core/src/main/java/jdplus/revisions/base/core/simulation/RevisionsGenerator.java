@@ -0,0 +1,261 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.simulation;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+
+/**
+ * Generator of synthetic real-time databases.
+ * <br>
+ * Each series is the sum of a random walk and of a fixed seasonal pattern. A
+ * new vintage is published at the end of each period, after a publication lag
+ * that depends on the series (ragged edges). The vintage contains the first
+ * release of the period and the revisions of the previous periods:
+ * <ul>
+ * <li>usual revisions, which converge geometrically to the "true" values
+ * during the revision horizon; a revised value is then kept unchanged during
+ * a random number of vintages</li>
+ * <li>seasonal re-estimations, which modify the seasonal pattern of the last
+ * three years</li>
+ * <li>benchmark revisions, which modify the level of the whole history</li>
+ * </ul>
+ * Only the values that changed are written in a vintage.
+ * <br>
+ * The generation of a series only depends on the seed and on the position of
+ * the series, so that the results don't depend on the order of the
+ * generation (sequential or parallel).
+ *
+ * @author PALATEJ
+ */
+@lombok.Value
+@lombok.Builder(toBuilder = true)
+public class RevisionsGenerator {
+
+    @FunctionalInterface
+    public static interface Sink {
+
+        /**
+         * Receives a new value (first release or revision)
+         *
+         * @param period The period
+         * @param vintage The publication date
+         * @param value The value
+         */
+        void add(TsPeriod period, LocalDate vintage, double value);
+    }
+
+    long seed;
+
+    /**
+     * First period of the series
+     */
+    @lombok.NonNull
+    TsPeriod start;
+
+    /**
+     * Number of periods (and of vintages) of each series
+     */
+    int length;
+
+    /**
+     * Minimal publication lag, in days. The actual lag of a series is
+     * uniformly distributed in [publicationLag, publicationLag +
+     * publicationLagSpread]
+     */
+    int publicationLag, publicationLagSpread;
+
+    /**
+     * Number of vintages during which a period is revised
+     */
+    int revisionHorizon;
+
+    /**
+     * Standard deviation of the error of the first release
+     */
+    double firstReleaseError;
+
+    /**
+     * Part of the error that remains after each revision (in [0, 1[)
+     */
+    double revisionDecay;
+
+    /**
+     * Mean number of vintages during which a revised value is kept unchanged
+     * (1 if all the values are revised in each vintage)
+     */
+    double meanRunLength;
+
+    /**
+     * Number of vintages between two seasonal re-estimations (0 for none) and
+     * standard deviation of the modifications of the seasonal pattern
+     */
+    int seasonalReestimation;
+    double seasonalShock;
+
+    /**
+     * Number of vintages between two benchmark revisions (0 for none) and
+     * standard deviation of the relative modifications of the level
+     */
+    int benchmarkInterval;
+    double benchmarkShock;
+
+    /**
+     * Initial level, standard deviation of the innovations of the random walk
+     * and amplitude of the seasonal pattern
+     */
+    double level, trendNoise, seasonalAmplitude;
+
+    public static Builder builder() {
+        return new Builder()
+                .start(TsPeriod.monthly(2000, 1))
+                .length(120)
+                .publicationLag(30)
+                .publicationLagSpread(15)
+                .revisionHorizon(12)
+                .firstReleaseError(1)
+                .revisionDecay(.6)
+                .meanRunLength(2)
+                .seasonalReestimation(12)
+                .seasonalShock(.2)
+                .benchmarkInterval(60)
+                .benchmarkShock(.01)
+                .level(100)
+                .trendNoise(1)
+                .seasonalAmplitude(5);
+    }
+
+    /**
+     * Generates the given series
+     *
+     * @param series Position of the series
+     * @return
+     */
+    public TsDataVintages<LocalDate> generate(int series) {
+        TsDataVintages.Builder<LocalDate> builder = TsDataVintages.builder();
+        generate(series, builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Generates the given series
+     *
+     * @param series Position of the series
+     * @param sink Receives the values, in the order of the vintages
+     */
+    public void generate(int series, Sink sink) {
+        SplittableRandom rnd = new SplittableRandom(mix(seed, series));
+        int freq = start.annualFrequency();
+        int lag = publicationLag + (publicationLagSpread > 0 ? rnd.nextInt(publicationLagSpread + 1) : 0);
+
+        // "true" values
+        double[] seas = new double[freq];
+        double phase = rnd.nextDouble() * 2 * Math.PI;
+        for (int i = 0; i < freq; ++i) {
+            seas[i] = seasonalAmplitude * Math.sin(phase + 2 * Math.PI * i / freq);
+        }
+        double[] x = new double[length];
+        double t = level;
+        for (int i = 0; i < length; ++i) {
+            t += trendNoise * rnd.nextGaussian();
+            x[i] = t + seas[i % freq];
+        }
+
+        double[] est = new double[length];
+        int[] frozen = new int[length];
+        boolean[] changed = new boolean[length];
+        double[] shocks = new double[freq];
+        TsPeriod cur = start;
+        for (int v = 0; v < length; ++v, cur = cur.next()) {
+            LocalDate vintage = cur.end().toLocalDate().plusDays(lag);
+            if (benchmarkInterval > 0 && v > 0 && v % benchmarkInterval == 0) {
+                double factor = 1 + benchmarkShock * rnd.nextGaussian();
+                for (int i = 0; i < v; ++i) {
+                    est[i] *= factor;
+                    changed[i] = true;
+                }
+            }
+            if (seasonalReestimation > 0 && v > 0 && v % seasonalReestimation == 0) {
+                for (int i = 0; i < freq; ++i) {
+                    shocks[i] = seasonalShock * rnd.nextGaussian();
+                }
+                for (int i = Math.max(0, v - 3 * freq); i < v; ++i) {
+                    est[i] += shocks[i % freq];
+                    changed[i] = true;
+                }
+            }
+            for (int i = Math.max(0, v - revisionHorizon); i < v; ++i) {
+                if (frozen[i] > 0) {
+                    --frozen[i];
+                } else {
+                    double e = (est[i] - x[i]) * revisionDecay;
+                    est[i] = x[i] + e + .1 * firstReleaseError * Math.pow(revisionDecay, v - i) * rnd.nextGaussian();
+                    frozen[i] = run(rnd) - 1;
+                    changed[i] = true;
+                }
+            }
+            est[v] = x[v] + firstReleaseError * rnd.nextGaussian();
+            frozen[v] = run(rnd) - 1;
+            changed[v] = true;
+            TsPeriod p = start;
+            for (int i = 0; i <= v; ++i, p = p.next()) {
+                if (changed[i]) {
+                    sink.add(p, vintage, est[i]);
+                    changed[i] = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the series [0, count[ and sends them to the consumer (with
+     * their position). The consumer must be thread-safe when the generation
+     * is parallel.
+     *
+     * @param count Number of series
+     * @param parallel
+     * @param consumer
+     */
+    public void generate(int count, boolean parallel, ObjIntConsumer<TsDataVintages<LocalDate>> consumer) {
+        IntStream all = IntStream.range(0, count);
+        if (parallel) {
+            all = all.parallel();
+        }
+        all.forEach(i -> consumer.accept(generate(i), i));
+    }
+
+    private int run(SplittableRandom rnd) {
+        if (meanRunLength <= 1) {
+            return 1;
+        }
+        // geometric distribution on 1, 2... with mean meanRunLength
+        double q = 1 - 1 / meanRunLength;
+        return 1 + (int) (Math.log(1 - rnd.nextDouble()) / Math.log(q));
+    }
+
+    private static long mix(long seed, int series) {
+        // splitmix64 finalizer
+        long z = seed + (series + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,6 +1,7 @@
 package jdplus.revisions.base.core.treatment;
 
 import java.util.ArrayList;
+import jdplus.revisions.base.core.monitoring.CleaningEvent;
 import jdplus.toolkit.base.api.data.DoubleSeq;
 import jdplus.toolkit.base.api.math.matrices.Matrix;
 import jdplus.toolkit.base.api.stats.StatException;
@@ -97,8 +98,63 @@ public class PreTreatment {
         
         return(DoubleSeq.of(cAr));
     }
-    
-    
+
+    /**
+     * Same as cleanNaN(a, b), but the cleaned sequences are written in
+     * the given buffers (no intermediate allocation)
+     *
+     * @param a The first sequence
+     * @param b The second sequence
+     * @param ca Buffer for the cleaned first sequence (length &ge a.length())
+     * @param cb Buffer for the cleaned second sequence (length &ge b.length())
+     * @return The number of elements kept in each buffer
+     */
+
+    public static int cleanNaN(DoubleSeq a, DoubleSeq b, double[] ca, double[] cb){
+
+        int n = a.length();
+        if (b.length() != n) {
+            throw new StatException("Non compatible data");
+        }
+
+        CleaningEvent event = CleaningEvent.start();
+        int m = 0;
+        for(int k = 0; k < n; ++k){
+            double ak = a.get(k), bk = b.get(k);
+            if(Double.isFinite(ak) && Double.isFinite(bk)){
+                ca[m] = ak;
+                cb[m++] = bk;
+            }
+        }
+        event.end(n, 2, m);
+        return m;
+    }
+
+    /**
+     * Same as cleanNaN(a), but the cleaned sequence is written in
+     * the given buffer (no intermediate allocation)
+     *
+     * @param a a sequence
+     * @param ca Buffer for the cleaned sequence (length &ge a.length())
+     * @return The number of elements kept in the buffer
+     */
+
+    public static int cleanNaN(DoubleSeq a, double[] ca){
+
+        int n = a.length();
+        CleaningEvent event = CleaningEvent.start();
+        int m = 0;
+        for(int k = 0; k < n; ++k){
+            double ak = a.get(k);
+            if(Double.isFinite(ak)){
+                ca[m++] = ak;
+            }
+        }
+        event.end(n, 1, m);
+        return m;
+    }
+
+
        /**
      * The method compares x sequences by element and  
      * removes the corresponding element in each sequence if at 
@@ -112,6 +168,7 @@ public class PreTreatment {
         
         int nr = m.getRowsCount();
         int nc = m.getColumnsCount();
+        CleaningEvent event = CleaningEvent.start();
 
         double[][] mAr = new double[nr][nc];
 
@@ -149,6 +206,7 @@ public class PreTreatment {
             int b = i/nc;
             mcoAr[(i*nrc)-(b*(l-1))]=mcAr[i];
         } 
+        event.end(nr, nc, nrc);
 
         return(Matrix.of(mcoAr, nrc, nc));
     }
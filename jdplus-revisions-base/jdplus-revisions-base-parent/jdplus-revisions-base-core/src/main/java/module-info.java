@@ -8,7 +8,12 @@ module jdplus.revisions.base.core {
     requires transitive jdplus.revisions.base.api;
     requires jdplus.toolkit.base.api;
     requires jdplus.toolkit.base.core;
+    requires jdk.jfr;
 
+    exports jdplus.revisions.base.core.cache;
+    exports jdplus.revisions.base.core.monitoring;
+    exports jdplus.revisions.base.core.panel;
     exports jdplus.revisions.base.core.parametric;
+    exports jdplus.revisions.base.core.simulation;
     exports jdplus.revisions.base.core.treatment;
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.cache;
+
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+import jdplus.toolkit.base.core.math.matrices.FastMatrix;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class ResultCacheTest {
+
+    public ResultCacheTest() {
+    }
+
+    @Test
+    public void testHits() {
+        ResultCache cache = new ResultCache(1 << 20);
+        int[] calls = new int[1];
+        double[] r0 = cache.get(in(1), "test", new Object[]{2, "x"}, () -> {
+            ++calls[0];
+            return new double[]{0};
+        });
+        double[] r1 = cache.get(in(1), "test", new Object[]{2, "x"}, () -> {
+            ++calls[0];
+            return new double[]{1};
+        });
+        assertArrayEquals(r0, r1);
+        assertEquals(1, calls[0]);
+        assertArrayEquals(new double[]{3}, cache.get(in(1), "test", new Object[]{3, "x"}, () -> new double[]{3}));
+        assertArrayEquals(new double[]{3}, cache.get(in(2), "test", new Object[]{2, "x"}, () -> new double[]{3}));
+        assertArrayEquals(new double[]{3}, cache.get(in(1), "other", new Object[]{2, "x"}, () -> new double[]{3}));
+        ResultCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(4, stats.getEntries());
+        assertNull(cache.get(in(5), "test", new Object[0], () -> null));
+        assertEquals(4, cache.stats().getEntries());
+        cache.clear();
+        assertEquals(0, cache.stats().getEntries());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    public void testEviction() {
+        // each entry takes 128 + 16 + 8 * 100 bytes
+        ResultCache cache = new ResultCache(3000);
+        for (int i = 0; i < 3; ++i) {
+            cache.get(in(i), "test", new Object[0], () -> new double[100]);
+        }
+        assertEquals(3, cache.stats().getEntries());
+        // 0 becomes the most recent one
+        cache.get(in(0), "test", new Object[0], () -> new double[100]);
+        cache.get(in(3), "test", new Object[0], () -> new double[100]);
+        ResultCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getEntries());
+        assertTrue(stats.getSize() <= stats.getCapacity());
+        assertNotNull(cache.get(in(0), "test", new Object[0], () -> null));
+        int[] calls = new int[1];
+        cache.get(in(1), "test", new Object[0], () -> {
+            ++calls[0];
+            return new double[100];
+        });
+        assertEquals(1, calls[0]);
+        // too large results are not cached
+        cache.get(in(4), "test", new Object[0], () -> new double[1000]);
+        assertEquals(3, cache.stats().getEntries());
+    }
+
+    @Test
+    public void testCopies() {
+        ResultCache cache = new ResultCache(1 << 20);
+        double[] r0 = cache.get(in(1), "test", new Object[0], () -> new double[]{1, 2, 3});
+        r0[0] = -1;
+        double[] r1 = cache.get(in(1), "test", new Object[0], () -> null);
+        assertArrayEquals(new double[]{1, 2, 3}, r1);
+        r1[1] = -1;
+        assertArrayEquals(new double[]{1, 2, 3}, cache.get(in(1), "test", new Object[0], () -> null));
+
+        double[] data = {1, 2, 3, 4};
+        Matrix m0 = cache.get(in(2), "test", new Object[0], () -> Matrix.of(data, 2, 2));
+        data[0] = -1;
+        assertEquals(1, m0.get(0, 0));
+        Matrix m1 = cache.get(in(2), "test", new Object[0], () -> null);
+        assertEquals(1, m1.get(0, 0));
+
+        // read-only form on a miss as on a hit
+        Matrix m2 = cache.get(in(3), "test", new Object[0], () -> FastMatrix.make(2, 2));
+        assertFalse(m2 instanceof FastMatrix);
+    }
+
+    @Test
+    public void testDimensions() {
+        ResultCache cache = new ResultCache(1 << 20);
+        cache.get(new ResultCache.Input(1, 3, 2), "test", new Object[0], () -> new double[]{1});
+        assertArrayEquals(new double[]{2}, cache.get(new ResultCache.Input(1, 2, 3), "test", new Object[0], () -> new double[]{2}));
+        assertEquals(2, cache.stats().getMisses());
+
+        Matrix m = Matrix.of(new double[]{1, 2, 3, 4, 5, 6}, 3, 2);
+        assertEquals(ResultCache.Input.of(m), ResultCache.Input.of(Matrix.of(m.toArray(), 3, 2)));
+        assertEquals(3, ResultCache.Input.of(m).getRows());
+    }
+
+    @Test
+    public void testFingerprint() {
+        double[] data = {1, 2, 3, 4, 5, 6};
+        Matrix m = Matrix.of(data, 3, 2);
+        assertEquals(ResultCache.fingerprint(m), ResultCache.fingerprint(Matrix.of(data.clone(), 3, 2)));
+        assertNotEquals(ResultCache.fingerprint(m), ResultCache.fingerprint(Matrix.of(data, 2, 3)));
+        double[] other = data.clone();
+        other[5] = 7;
+        assertNotEquals(ResultCache.fingerprint(m), ResultCache.fingerprint(Matrix.of(other, 3, 2)));
+    }
+
+    private static ResultCache.Input in(long fingerprint) {
+        return new ResultCache.Input(fingerprint, 1, 1);
+    }
+}
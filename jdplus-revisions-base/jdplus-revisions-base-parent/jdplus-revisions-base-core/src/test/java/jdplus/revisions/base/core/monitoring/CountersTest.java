@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.monitoring;
+
+import java.time.LocalDate;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.core.parametric.BiasComputer;
+import jdplus.revisions.base.core.parametric.Processor;
+import jdplus.revisions.base.core.treatment.PreTreatment;
+import jdplus.toolkit.base.api.data.DoubleSeq;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class CountersTest {
+
+    public CountersTest() {
+    }
+
+    @Test
+    public void testSnapshot() {
+        DoubleSeq a = DoubleSeq.of(1, Double.NaN, 3, 4, 2, 5), b = DoubleSeq.of(1, 2, 3, Double.NaN, 3, 4);
+        double[] ca = new double[6], cb = new double[6];
+
+        Counters.Snapshot s0 = Counters.snapshot();
+        PreTreatment.cleanNaN(a, b, ca, cb);
+        assertEquals(0, Counters.snapshot().minus(s0).getCount(Stage.CLEANING));
+
+        Counters.setEnabled(true);
+        try {
+            s0 = Counters.snapshot();
+            PreTreatment.cleanNaN(a, b, ca, cb);
+            PreTreatment.cleanNaN(a, ca);
+            BiasComputer.of(DoubleSeq.of(.1, -.2, .3, .1));
+            Counters.Snapshot delta = Counters.snapshot().minus(s0);
+            assertEquals(2, delta.getCount(Stage.CLEANING));
+            assertEquals(1, delta.getCount(Stage.DIAGNOSTIC));
+            assertEquals(0, delta.getCount(Stage.SWEEP));
+            assertFalse(delta.getDuration(Stage.CLEANING).isNegative());
+        } finally {
+            Counters.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testVerticalAnalysis() {
+        TsDataVintages.Builder<LocalDate> builder = TsDataVintages.<LocalDate>builder();
+        TsPeriod start = TsPeriod.monthly(2000, 1);
+        for (int i = 0; i < 24; ++i) {
+            for (int k = 0; k < 6; ++k) {
+                builder.add(start, LocalDate.of(2010, 1, 1).plusDays(k * 30), i + k * .1 + (i % 3) * .05);
+            }
+            start = start.next();
+        }
+        TsDataVintages<LocalDate> all = builder.build();
+        LocalDate first = all.getVintages().get(0), last = all.getVintages().get(5);
+
+        Counters.setEnabled(true);
+        try {
+            Counters.Snapshot s0 = Counters.snapshot();
+            Processor.verticalAnalysis(all, first, last);
+            Counters.Snapshot delta = Counters.snapshot().minus(s0);
+            // one extraction for all the vintages, one regression per revision
+            assertEquals(1, delta.getCount(Stage.MATERIALIZATION));
+            assertEquals(5, delta.getCount(Stage.REGRESSION));
+        } finally {
+            Counters.setEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.panel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.parametric.Specification;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.core.parametric.Processor;
+import jdplus.revisions.base.core.simulation.RevisionsGenerator;
+import jdplus.toolkit.base.api.timeseries.TimeSelector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class PanelProcessorTest {
+
+    public PanelProcessorTest() {
+    }
+
+    @Test
+    public void testParallel() {
+        List<TsDataVintages<LocalDate>> panel = panel(30);
+        PanelProcessor processor = PanelProcessor.builder().parallelism(4).build();
+        AtomicReferenceArray<RegressionBasedTable<LocalDate>> all = new AtomicReferenceArray<>(panel.size());
+        processor.process(panel, PanelProcessor.diagonalTable(0, 5), (i, t) -> all.set(i, t));
+        for (int i = 0; i < panel.size(); ++i) {
+            RegressionBasedTable<LocalDate> t = Processor.diagonalTable(panel.get(i), 0, 5);
+            assertEquals(t.size(), all.get(i).size());
+            assertEquals(t.get(t.size() - 1, RegressionBasedTable.THEIL), all.get(i).get(t.size() - 1, RegressionBasedTable.THEIL));
+        }
+    }
+
+    @Test
+    public void testSelection() {
+        List<TsDataVintages<LocalDate>> panel = panel(5);
+        PanelProcessor processor = PanelProcessor.builder()
+                .parallelism(1)
+                .specification(Specification.builder().timeSelection(TimeSelector.last(24)).build())
+                .build();
+        List<Integer> lengths = new ArrayList<>();
+        processor.process(panel.size(), panel::get, TsDataVintages::length, (i, n) -> lengths.add(n));
+        assertEquals(5, lengths.size());
+        assertTrue(lengths.stream().allMatch(n -> n == 24));
+    }
+
+    @Test
+    public void testFailures() {
+        List<TsDataVintages<LocalDate>> panel = panel(10);
+        AtomicInteger ok = new AtomicInteger(), failed = new AtomicInteger();
+        PanelProcessor.builder().build().process(panel, v -> {
+            if (v.length() % 24 == 0) {
+                throw new IllegalArgumentException();
+            }
+            return v;
+        }, new PanelProcessor.Sink<TsDataVintages<LocalDate>>() {
+            @Override
+            public void accept(int series, TsDataVintages<LocalDate> result) {
+                ok.incrementAndGet();
+            }
+
+            @Override
+            public void failed(int series, RuntimeException err) {
+                failed.incrementAndGet();
+            }
+        });
+        assertEquals(10, ok.get() + failed.get());
+        assertTrue(failed.get() > 0);
+        assertThrows(IllegalArgumentException.class, () -> PanelProcessor.builder().build().process(panel, v -> {
+            throw new IllegalArgumentException();
+        }, (i, r) -> {
+        }));
+    }
+
+    private static List<TsDataVintages<LocalDate>> panel(int n) {
+        List<TsDataVintages<LocalDate>> panel = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            // very uneven sizes
+            RevisionsGenerator generator = RevisionsGenerator.builder().seed(i).length(36 + 12 * (i % 7)).build();
+            panel.add(generator.generate(i));
+        }
+        return panel;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import jdplus.toolkit.base.api.stats.ProbabilityType;
+import jdplus.toolkit.base.core.dstats.T;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class DistributionsTest {
+
+    public DistributionsTest() {
+    }
+
+    @Test
+    public void testCache() {
+        assertSame(Distributions.t(20), Distributions.t(20));
+        assertSame(Distributions.f(2, 30), Distributions.f(2, 30));
+        assertNotSame(Distributions.f(2, 30), Distributions.f(30, 2));
+        assertNotSame(Distributions.t(20.5), Distributions.t(20.5));
+    }
+
+    @Test
+    public void testPvalues() {
+        double[] t = {-2.5, -1, 0, .3, 1.96, Double.NaN};
+        double[] p = new double[t.length];
+        Distributions.twoSidedPvalues(15, t, p);
+        T dist = new T(15);
+        for (int i = 0; i < t.length - 1; ++i) {
+            assertEquals(2 * dist.getProbability(Math.abs(t[i]), ProbabilityType.Upper), p[i], 1e-15);
+        }
+        assertTrue(Double.isNaN(p[t.length - 1]));
+    }
+}
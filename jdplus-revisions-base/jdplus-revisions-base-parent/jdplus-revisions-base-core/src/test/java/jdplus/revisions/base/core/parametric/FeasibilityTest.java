@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import java.util.Random;
+import jdplus.toolkit.base.api.data.DoubleSeq;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class FeasibilityTest {
+
+    public FeasibilityTest() {
+    }
+
+    @Test
+    public void testRegression() {
+        Random rnd = new Random(0);
+        int n = 20;
+        double[] y = new double[n], x1 = new double[n], x2 = new double[n];
+        for (int i = 0; i < n; ++i) {
+            x1[i] = rnd.nextGaussian();
+            x2[i] = rnd.nextGaussian();
+            y[i] = x1[i] + x2[i] + rnd.nextGaussian();
+        }
+        DoubleSeq Y = DoubleSeq.of(y), X1 = DoubleSeq.of(x1), X2 = DoubleSeq.of(x2);
+        assertEquals(Feasibility.OK, Feasibility.regression(Y, X1, X2));
+        assertEquals(Feasibility.SINGULAR, Feasibility.regression(Y, X1, X1.fn(z -> 2 * z + 1)));
+        assertEquals(Feasibility.CONSTANT, Feasibility.regression(Y, DoubleSeq.onMapping(n, i -> 5)));
+        assertEquals(Feasibility.CONSTANT, Feasibility.regression(DoubleSeq.onMapping(n, i -> 1000), X1));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, Feasibility.regression(Y.range(0, 3), X1.range(0, 3), X2.range(0, 3)));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, Feasibility.autoCorrelation(Y.range(0, 5), X1.range(0, 5), 2, 4));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, Feasibility.cointegration(Y.range(0, 5), X1.range(0, 5), 1));
+        assertEquals(Feasibility.OK, Feasibility.cointegration(Y.range(0, 6), X1.range(0, 6), 1));
+    }
+
+    @Test
+    public void testSeries() {
+        // 4 regressors (constant, trend, y(t-1), dy(t-1)) on 4 observations
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, Feasibility.unitRoot(DoubleSeq.of(1, 3, 2, 5, 4, 6), 1));
+        assertEquals(Feasibility.OK, Feasibility.unitRoot(DoubleSeq.of(1, 3, 2, 5, 4, 6, 8), 1));
+        assertEquals(Feasibility.OK, Feasibility.unitRoot(DoubleSeq.of(1, 3, 2, 5, 4), 0));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, Feasibility.unitRoot(DoubleSeq.of(1, 3, 2, 5, 4, 6), 2));
+        assertEquals(Feasibility.CONSTANT, Feasibility.unitRoot(DoubleSeq.onMapping(10, i -> 0), 1));
+    }
+}
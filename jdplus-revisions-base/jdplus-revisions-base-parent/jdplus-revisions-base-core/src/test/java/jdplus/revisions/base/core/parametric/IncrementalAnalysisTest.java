@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.api.timeseries.VintageSelector;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class IncrementalAnalysisTest {
+
+    public IncrementalAnalysisTest() {
+    }
+
+    @Test
+    public void testAdd() {
+        TsDataVintages<LocalDate> all = random(240, 12);
+        List<LocalDate> vintages = all.getVintages();
+        LocalDate first = vintages.get(0), last = vintages.get(vintages.size() - 1);
+        LocalDate before = vintages.get(vintages.size() - 2);
+
+        IncrementalAnalysis<LocalDate> state = IncrementalAnalysis.of(all, first, before);
+        IncrementalAnalysis<LocalDate> incremental = new IncrementalAnalysis<>(first, last);
+        for (int i = 0; i < vintages.size() - 1; ++i) {
+            incremental.add(vintages.get(i), all.vintage(vintages.get(i)));
+        }
+        assertEquals(state.size(), incremental.size());
+        assertTrue(incremental.add(last, all.vintage(last)));
+
+        RegressionBasedAnalysis<LocalDate> full = Processor.verticalAnalysis(all, first, last);
+        RegressionBasedAnalysis<LocalDate> analysis = incremental.analysis();
+        assertEquals(full.size(), analysis.size());
+        for (int k = 0; k < full.size(); ++k) {
+            assertEquals(full.revision(k).getVintage(), analysis.revision(k).getVintage());
+            assertEquals(full.revision(k).getTheilCoefficient(), analysis.revision(k).getTheilCoefficient());
+        }
+        assertThrows(IllegalArgumentException.class, () -> incremental.add(before, all.vintage(before)));
+    }
+
+    @Test
+    public void testNextRelease() {
+        TsDataVintages<LocalDate> all = random(240, 12);
+        List<LocalDate> vintages = all.getVintages();
+        LocalDate first = vintages.get(1), last = vintages.get(vintages.size() - 1);
+        // current database, without the last publication
+        TsDataVintages<LocalDate> current = all.view().select(VintageSelector.excluding(0, 1)).toVintages();
+        assertFalse(current.getVintages().contains(last));
+
+        IncrementalAnalysis<LocalDate> state = IncrementalAnalysis.of(current, first);
+        int n = state.size();
+        assertTrue(state.add(last, all.vintage(last)));
+        assertEquals(n + 1, state.size());
+        assertEquals(last, state.getCurrentVintage());
+
+        RegressionBasedAnalysis<LocalDate> full = Processor.verticalAnalysis(all, first, last);
+        RegressionBasedAnalysis<LocalDate> analysis = state.analysis();
+        assertEquals(full.size(), analysis.size());
+        for (int k = 0; k < full.size(); ++k) {
+            assertEquals(full.revision(k).getVintage(), analysis.revision(k).getVintage());
+            assertEquals(full.revision(k).getTheilCoefficient(), analysis.revision(k).getTheilCoefficient());
+            assertEquals(full.revision(k).getRegression().getR2(), analysis.revision(k).getRegression().getR2());
+            assertEquals(full.revision(k).getBias().getMu(), analysis.revision(k).getBias().getMu());
+        }
+    }
+
+    private static TsDataVintages<LocalDate> random(int N, int K) {
+        Random rnd = new Random(0);
+        TsDataVintages.Builder<LocalDate> builder = TsDataVintages.<LocalDate>builder();
+        TsPeriod start = TsPeriod.monthly(2000, 1);
+        for (int i = 0; i < N; ++i) {
+            for (int k = 0; k < K; ++k) {
+                builder.add(start, LocalDate.of(2020, 1, 1).plusDays(k * 30), rnd.nextDouble());
+            }
+            start = start.next();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import java.util.Random;
+import jdplus.revisions.base.api.parametric.RegressionAutoCorrelation;
+import jdplus.revisions.base.core.monitoring.Counters;
+import jdplus.revisions.base.core.monitoring.Stage;
+import jdplus.toolkit.base.api.data.DoubleSeq;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class RegressionAutoCorrelationComputerTest {
+
+    public RegressionAutoCorrelationComputerTest() {
+    }
+
+    @Test
+    public void testSingleEstimation() {
+        Random rnd = new Random(0);
+        int n = 40;
+        double[] y = new double[n], x = new double[n];
+        for (int i = 0; i < n; ++i) {
+            x[i] = rnd.nextGaussian();
+            y[i] = 1 + x[i] + rnd.nextGaussian();
+        }
+        Counters.setEnabled(true);
+        try {
+            Counters.Snapshot s0 = Counters.snapshot();
+            RegressionAutoCorrelation rslt = RegressionAutoCorrelationComputer.of(DoubleSeq.of(y), DoubleSeq.of(x), 2, 4);
+            assertNotNull(rslt.getRegression());
+            assertNotNull(rslt.getAutoCorrelation());
+            assertEquals(1, Counters.snapshot().minus(s0).getCount(Stage.REGRESSION));
+        } finally {
+            Counters.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testInfeasible() {
+        DoubleSeq x = DoubleSeq.of(1, 3, 2, 5, 4, 6, 8, 7, 9, 10);
+        assertNull(RegressionAutoCorrelationComputer.of(DoubleSeq.onMapping(10, i -> 0), x, 2, 4));
+        assertNull(RegressionAutoCorrelationComputer.autoCorrelation(x.range(0, 4), x.range(0, 4), 2, 4));
+    }
+}
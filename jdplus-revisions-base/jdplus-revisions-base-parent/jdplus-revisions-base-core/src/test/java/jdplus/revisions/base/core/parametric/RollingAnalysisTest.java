@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import java.util.Random;
+import jdplus.revisions.base.api.parametric.Bias;
+import jdplus.revisions.base.api.parametric.OlsTests;
+import jdplus.revisions.base.api.timeseries.TsMatrix;
+import jdplus.toolkit.base.api.data.DoubleSeq;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+import jdplus.toolkit.base.api.timeseries.TsData;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import jdplus.toolkit.base.core.stats.StatUtility;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class RollingAnalysisTest {
+
+    public RollingAnalysisTest() {
+    }
+
+    @Test
+    public void testWindows() {
+        Random rnd = new Random(0);
+        int n = 100, window = 20;
+        double[] p = new double[n], l = new double[n];
+        for (int i = 0; i < n; ++i) {
+            p[i] = 1000 + 10 * rnd.nextGaussian();
+            l[i] = p[i] + 1 + rnd.nextGaussian();
+        }
+        TsPeriod start = TsPeriod.quarterly(1995, 1);
+        TsMatrix rolling = RollingAnalysis.of(TsData.ofInternal(start, p), TsData.ofInternal(start, l), window);
+        Matrix m = rolling.getMatrix();
+        assertEquals(n - window + 1, m.getRowsCount());
+        assertEquals(start.plus(window - 1), rolling.getStart());
+
+        for (int k = 0; k < m.getRowsCount(); k += 27) {
+            DoubleSeq pk = DoubleSeq.of(p).extract(k, window), lk = DoubleSeq.of(l).extract(k, window);
+            Bias bias = BiasComputer.of(DoubleSeq.onMapping(window, i -> lk.get(i) - pk.get(i)));
+            OlsTests ols = OlsTestsComputer.of(lk, pk);
+            assertEquals(StatUtility.theilInequalityCoefficient(lk, pk), m.get(k, RollingAnalysis.THEIL), 1e-9);
+            assertEquals(bias.getMu(), m.get(k, RollingAnalysis.BIAS_MU), 1e-9);
+            assertEquals(bias.getSigma(), m.get(k, RollingAnalysis.BIAS_SIGMA), 1e-9);
+            assertEquals(bias.getAr(), m.get(k, RollingAnalysis.BIAS_AR), 1e-9);
+            assertEquals(bias.getAdjustedTPvalue(), m.get(k, RollingAnalysis.BIAS_ADJUSTEDTPVALUE), 1e-9);
+            assertEquals(ols.getR2(), m.get(k, RollingAnalysis.R2), 1e-9);
+            assertEquals(ols.getCoefficients()[0].getEstimate(), m.get(k, RollingAnalysis.B0), 1e-6);
+            assertEquals(ols.getCoefficients()[1].getStdev(), m.get(k, RollingAnalysis.B1_STDEV), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.parametric;
+
+import java.util.Random;
+import jdplus.revisions.base.api.parametric.SignalNoise;
+import jdplus.toolkit.base.api.data.DoubleSeq;
+import jdplus.toolkit.base.api.data.DoublesMath;
+import jdplus.toolkit.base.core.stats.linearmodel.LinearModel;
+import jdplus.toolkit.base.core.stats.linearmodel.Ols;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class SignalNoiseComputerTest {
+
+    public SignalNoiseComputerTest() {
+    }
+
+    @Test
+    public void testOls() {
+        Random rnd = new Random(0);
+        double[] p = new double[60], l = new double[60];
+        for (int i = 0; i < p.length; ++i) {
+            p[i] = 10 + rnd.nextGaussian();
+            l[i] = p[i] + .5 * rnd.nextGaussian();
+        }
+        DoubleSeq P = DoubleSeq.of(p), L = DoubleSeq.of(l);
+        SignalNoise sn = SignalNoiseComputer.of(P, L);
+        DoubleSeq r = DoublesMath.subtract(L, P);
+        double news = Ols.compute(LinearModel.builder().y(r).meanCorrection(true).addX(L).build()).getR2();
+        double noise = Ols.compute(LinearModel.builder().y(r).meanCorrection(true).addX(P).build()).getR2();
+        assertEquals(news, sn.getNewsR2(), 1e-9);
+        assertEquals(noise, sn.getNoiseR2(), 1e-9);
+
+        // missing values are skipped
+        double[] pm = new double[p.length + 1], lm = new double[l.length + 1];
+        System.arraycopy(p, 0, pm, 1, p.length);
+        System.arraycopy(l, 0, lm, 1, l.length);
+        pm[0] = Double.NaN;
+        assertEquals(sn, SignalNoiseComputer.of(DoubleSeq.of(pm), DoubleSeq.of(lm)));
+    }
+}
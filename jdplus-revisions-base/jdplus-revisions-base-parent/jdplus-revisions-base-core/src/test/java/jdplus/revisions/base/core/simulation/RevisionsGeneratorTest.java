@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.core.simulation;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class RevisionsGeneratorTest {
+
+    public RevisionsGeneratorTest() {
+    }
+
+    @Test
+    public void testReproducibility() {
+        RevisionsGenerator generator = RevisionsGenerator.builder().seed(7).build();
+        int n = 20;
+        AtomicReferenceArray<TsDataVintages<LocalDate>> all = new AtomicReferenceArray<>(n);
+        generator.generate(n, true, (v, i) -> all.set(i, v));
+        for (int i = 0; i < n; i += 3) {
+            TsDataVintages<LocalDate> v = generator.generate(i);
+            assertEquals(v.getVintages(), all.get(i).getVintages());
+            assertArrayEquals(v.current().getValues().toArray(), all.get(i).current().getValues().toArray());
+            assertArrayEquals(v.preliminary().getValues().toArray(), all.get(i).preliminary().getValues().toArray());
+        }
+        assertNotEquals(all.get(0).current(), all.get(1).current());
+    }
+
+    @Test
+    public void testRevisionHorizon() {
+        RevisionsGenerator generator = RevisionsGenerator.builder()
+                .seed(1)
+                .length(60)
+                .revisionHorizon(6)
+                .meanRunLength(1)
+                .seasonalReestimation(0)
+                .benchmarkInterval(0)
+                .build();
+        TsDataVintages<LocalDate> v = generator.generate(0);
+        assertEquals(60, v.length());
+        assertEquals(60, v.getVintages().size());
+        assertEquals(7, v.maxRevisionsCount());
+        // the last periods are revised less often
+        assertEquals(1, v.get(59).size());
+    }
+}
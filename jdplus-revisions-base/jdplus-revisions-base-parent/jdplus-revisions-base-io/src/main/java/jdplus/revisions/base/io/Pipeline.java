@@ -0,0 +1,380 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.toolkit.base.api.timeseries.TsUnit;
+
+/**
+ * Batch processing of a directory of csv files (see VintagesCsv), in four
+ * stages running concurrently: loading of the files, building of the
+ * vintages, analysis and writing of the results (in the output directory).
+ * The stages are connected by bounded queues, so that
+ * a slow stage blocks the previous ones (backpressure) instead of
+ * accumulating data in memory.
+ *
+ * @author PALATEJ
+ * @param <R> Type of the results of the analysis
+ */
+@lombok.Value
+@lombok.Builder(toBuilder = true)
+public class Pipeline<R> {
+
+    @FunctionalInterface
+    public static interface ResultWriter<R> {
+
+        /**
+         *
+         * @param name Name of the input file, without its extension
+         * @param result Result of the analysis
+         * @param output Output directory
+         * @throws IOException
+         */
+        void write(String name, R result, Path output) throws IOException;
+    }
+
+    /**
+     * Follows the progress of the pipeline. The methods are called from the
+     * worker threads
+     */
+    public static interface Listener {
+
+        /**
+         * Called before the processing of the files
+         *
+         * @param count Number of files
+         */
+        default void started(int count) {
+        }
+
+        /**
+         * Called when the results of a file have been written
+         *
+         * @param name
+         */
+        void processed(String name);
+
+        void failed(Failure failure);
+    }
+
+    /**
+     * Activity of a stage. The waiting times are cumulated on all the threads
+     * of the stage
+     */
+    @lombok.Value
+    public static class Metrics {
+
+        String stage;
+        int threads;
+        /**
+         * Number of items successfully processed
+         */
+        long items;
+        long failures;
+        /**
+         * Time spent in processing the items (nanoseconds)
+         */
+        long busyNanos;
+        /**
+         * Time spent in waiting for input (nanoseconds)
+         */
+        long inputWaitNanos;
+        /**
+         * Time spent in waiting for room in the next queue (nanoseconds)
+         */
+        long outputWaitNanos;
+        /**
+         * Highest number of items in the next queue
+         */
+        long maxQueueSize;
+    }
+
+    @lombok.Value
+    public static class Failure {
+
+        String name;
+        String stage;
+        /**
+         * Exception or error thrown by the stage (or by the listener)
+         */
+        Throwable error;
+    }
+
+    @lombok.Value
+    public static class Report {
+
+        List<Metrics> stages;
+        List<Failure> failures;
+        long elapsedNanos;
+    }
+
+    /**
+     * Input directory (or single input file)
+     */
+    @lombok.NonNull
+    Path input;
+
+    @lombok.NonNull
+    Path output;
+
+    /**
+     * Extension of the input files
+     */
+    String suffix;
+
+    int annualFrequency;
+
+    @lombok.NonNull
+    Function<? super TsDataVintages<LocalDate>, ? extends R> analysis;
+
+    @lombok.NonNull
+    ResultWriter<? super R> writer;
+
+    /**
+     * Number of threads of each stage
+     */
+    int loaders, builders, analysers, writers;
+
+    /**
+     * Capacity of the queues between the stages
+     */
+    int capacity;
+
+    /**
+     * May be null
+     */
+    Listener listener;
+
+    public static <R> Builder<R> builder() {
+        int n = Runtime.getRuntime().availableProcessors();
+        return new Builder<R>()
+                .suffix(".csv")
+                .annualFrequency(12)
+                .loaders(4)
+                .builders(Math.max(1, n / 2))
+                .analysers(n)
+                .writers(2)
+                .capacity(64);
+    }
+
+    /**
+     * Processes all the files of the input directory. A file that can't be
+     * processed is reported in the failures and doesn't stop the other ones
+     *
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public Report run() throws IOException, InterruptedException {
+        long t0 = System.nanoTime();
+        List<Path> files;
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> all = Files.list(input)) {
+                files = all.filter(p -> p.getFileName().toString().endsWith(suffix)).sorted().collect(Collectors.toList());
+            }
+        } else {
+            files = List.of(input);
+        }
+        Files.createDirectories(output);
+        if (listener != null) {
+            listener.started(files.size());
+        }
+        TsUnit unit = TsUnit.ofAnnualFrequency(annualFrequency);
+
+        BlockingQueue<Item> q0 = new ArrayBlockingQueue<>(files.size() + 1);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            q0.add(new Item(name.endsWith(suffix) ? name.substring(0, name.length() - suffix.length()) : name, file));
+        }
+        q0.add(Item.END);
+        BlockingQueue<Item> q1 = new ArrayBlockingQueue<>(capacity),
+                q2 = new ArrayBlockingQueue<>(capacity),
+                q3 = new ArrayBlockingQueue<>(capacity);
+
+        List<Stage> stages = new ArrayList<>();
+        Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+        stages.add(new Stage("load", loaders, q0, q1, failures, listener,
+                (name, file) -> Files.readAllBytes((Path) file)));
+        stages.add(new Stage("build", builders, q1, q2, failures, listener,
+                (name, content) -> VintagesCsv.parse((byte[]) content, unit)));
+        stages.add(new Stage("analyse", analysers, q2, q3, failures, listener,
+                (name, vintages) -> analysis.apply((TsDataVintages<LocalDate>) vintages)));
+        stages.add(new Stage("write", writers, q3, null, failures, listener, (name, rslt) -> {
+            writer.write(name, (R) rslt, output);
+            if (listener != null) {
+                listener.processed(name);
+            }
+            return null;
+        }));
+
+        for (Stage stage : stages) {
+            stage.start();
+        }
+        try {
+            for (Stage stage : stages) {
+                stage.join();
+            }
+        } catch (InterruptedException ex) {
+            for (Stage stage : stages) {
+                stage.interrupt();
+            }
+            throw ex;
+        }
+        return new Report(stages.stream().map(Stage::metrics).collect(Collectors.toList()),
+                Collections.unmodifiableList(new ArrayList<>(failures)), System.nanoTime() - t0);
+    }
+
+    @lombok.AllArgsConstructor
+    private static final class Item {
+
+        static final Item END = new Item(null, null);
+
+        final String name;
+        final Object value;
+    }
+
+    @FunctionalInterface
+    private static interface Task {
+
+        Object apply(String name, Object value) throws Exception;
+    }
+
+    private static final class Stage {
+
+        private final String name;
+        private final int threads;
+        private final BlockingQueue<Item> in, out;
+        private final Queue<Failure> failures;
+        private final Listener listener;
+        private final Task task;
+        private final List<Thread> workers = new ArrayList<>();
+        private final AtomicInteger active;
+        private final LongAdder items = new LongAdder(), failed = new LongAdder(),
+                busy = new LongAdder(), inputWait = new LongAdder(), outputWait = new LongAdder();
+        private final LongAccumulator maxQueueSize = new LongAccumulator(Math::max, 0);
+
+        private Stage(String name, int threads, BlockingQueue<Item> in, BlockingQueue<Item> out, Queue<Failure> failures, Listener listener, Task task) {
+            this.name = name;
+            this.threads = Math.max(1, threads);
+            this.in = in;
+            this.out = out;
+            this.failures = failures;
+            this.listener = listener;
+            this.task = task;
+            this.active = new AtomicInteger(this.threads);
+        }
+
+        private void start() {
+            for (int i = 0; i < threads; ++i) {
+                Thread worker = new Thread(this::work, "revisions-" + name + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        private void join() throws InterruptedException {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        private void interrupt() {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+        }
+
+        private void work() {
+            try {
+                while (true) {
+                    long t0 = System.nanoTime();
+                    Item item = in.take();
+                    long t1 = System.nanoTime();
+                    inputWait.add(t1 - t0);
+                    if (item == Item.END) {
+                        // for the other workers of the stage
+                        in.put(item);
+                        break;
+                    }
+                    Object rslt;
+                    try {
+                        rslt = task.apply(item.name, item.value);
+                        items.increment();
+                    } catch (Throwable err) {
+                        // errors (out of memory on a large file...) only stop the current item
+                        rslt = null;
+                        failed(item.name, err);
+                    }
+                    long t2 = System.nanoTime();
+                    busy.add(t2 - t1);
+                    if (rslt != null && out != null) {
+                        out.put(new Item(item.name, rslt));
+                        outputWait.add(System.nanoTime() - t2);
+                        maxQueueSize.accumulate(out.size());
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // the next stage must always be completed, even if this worker died
+                if (active.decrementAndGet() == 0 && out != null) {
+                    try {
+                        out.put(Item.END);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        private void failed(String item, Throwable err) {
+            failed.increment();
+            Failure failure = new Failure(item, name, err);
+            failures.add(failure);
+            if (listener != null) {
+                try {
+                    listener.failed(failure);
+                } catch (Throwable lerr) {
+                    failures.add(new Failure(item, name + " (listener)", lerr));
+                }
+            }
+        }
+
+        private Metrics metrics() {
+            return new Metrics(name, threads, items.sum(), failed.sum(),
+                    busy.sum(), inputWait.sum(), outputWait.sum(), maxQueueSize.get());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.timeseries.IsoDates;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import jdplus.toolkit.base.api.timeseries.TsUnit;
+
+/**
+ * Csv files of vintages. Each line contains the period (ISO date), the
+ * vintage (ISO date) and the value, separated by ',' or ';'. Lines that don't
+ * start with a digit (header...) are skipped, as well as empty values.
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class VintagesCsv {
+
+    public TsDataVintages<LocalDate> read(Path file, TsUnit unit) throws IOException {
+        return parse(Files.readAllBytes(file), unit);
+    }
+
+    /**
+     * Parses the content of a csv file (ASCII or UTF-8)
+     *
+     * @param content
+     * @param unit Frequency of the series
+     * @return
+     */
+    public TsDataVintages<LocalDate> parse(byte[] content, TsUnit unit) {
+        TsDataVintages.Builder<LocalDate> builder = TsDataVintages.builder();
+        // Periods and vintages are heavily repeated
+        Map<Integer, TsPeriod> periods = new HashMap<>();
+        Map<Integer, LocalDate> vintages = new HashMap<>();
+        int n = content.length, beg = 0, line = 0, count = 0;
+        int[] sep = new int[2];
+        while (beg < n) {
+            int end = beg;
+            while (end < n && content[end] != '\n') {
+                ++end;
+            }
+            ++line;
+            int last = end > beg && content[end - 1] == '\r' ? end - 1 : end;
+            if (last > beg && content[beg] >= '0' && content[beg] <= '9') {
+                int m = 0;
+                for (int i = beg; i < last && m < 2; ++i) {
+                    if (content[i] == ',' || content[i] == ';') {
+                        sep[m++] = i;
+                    }
+                }
+                if (m < 2) {
+                    throw new IllegalArgumentException("Invalid line " + line);
+                }
+                String v = new String(content, sep[1] + 1, last - sep[1] - 1, StandardCharsets.US_ASCII).trim();
+                if (!v.isEmpty() && !v.equals("NA")) {
+                    int p = IsoDates.epochDay(content, beg, sep[0]);
+                    int r = IsoDates.epochDay(content, sep[0] + 1, sep[1]);
+                    builder.add(periods.computeIfAbsent(p, d -> TsPeriod.of(unit, LocalDate.ofEpochDay(d))),
+                            vintages.computeIfAbsent(r, LocalDate::ofEpochDay), Double.parseDouble(v));
+                    ++count;
+                }
+            }
+            beg = end + 1;
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("No data");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes a table (one line by revision, one column by field)
+     *
+     * @param table
+     * @param out
+     * @throws IOException
+     */
+    public void write(RegressionBasedTable<?> table, Writer out) throws IOException {
+        out.write("vintage");
+        for (String field : RegressionBasedTable.fields()) {
+            out.write(',');
+            out.write(field);
+        }
+        out.write('\n');
+        for (int k = 0; k < table.size(); ++k) {
+            Object vintage = table.vintage(k);
+            out.write(vintage == null ? Integer.toString(k) : vintage.toString());
+            for (int j = 0; j < RegressionBasedTable.FIELDS_COUNT; ++j) {
+                out.write(',');
+                double val = table.get(k, j);
+                if (Double.isFinite(val)) {
+                    out.write(Double.toString(val));
+                }
+            }
+            out.write('\n');
+        }
+    }
+}
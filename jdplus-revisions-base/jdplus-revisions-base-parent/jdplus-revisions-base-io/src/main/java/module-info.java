@@ -6,4 +6,7 @@ module jdplus.revisions.base.io {
     requires static org.checkerframework.checker.qual;
 
     requires transitive jdplus.revisions.base.api;
+    requires jdplus.toolkit.base.api;
+
+    exports jdplus.revisions.base.io;
 }
\ No newline at end of file
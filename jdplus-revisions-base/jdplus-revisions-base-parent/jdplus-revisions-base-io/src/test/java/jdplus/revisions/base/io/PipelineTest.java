@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Random;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import jdplus.toolkit.base.api.timeseries.TsUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class PipelineTest {
+
+    public PipelineTest() {
+    }
+
+    @Test
+    public void testDirectory(@TempDir Path dir) throws IOException, InterruptedException {
+        Path input = dir.resolve("in"), output = dir.resolve("out");
+        Files.createDirectories(input);
+        int n = 12;
+        for (int i = 0; i < n; ++i) {
+            Files.writeString(input.resolve("s" + i + ".csv"), random(24 + i, 3, i));
+        }
+        Files.writeString(input.resolve("invalid.csv"), "period,vintage,value\n2020-01-01;2020-02-01\n");
+        Files.writeString(input.resolve("ignored.txt"), "");
+
+        Pipeline<Integer> pipeline = Pipeline.<Integer>builder()
+                .input(input)
+                .output(output)
+                .analysis(v -> v.length())
+                .writer((name, len, out) -> Files.writeString(out.resolve(name + ".csv"), len.toString()))
+                .loaders(2)
+                .analysers(3)
+                .capacity(2)
+                .build();
+        Pipeline.Report report = pipeline.run();
+
+        for (int i = 0; i < n; ++i) {
+            assertEquals(Integer.toString(24 + i), Files.readString(output.resolve("s" + i + ".csv")));
+        }
+        assertFalse(Files.exists(output.resolve("invalid.csv")));
+        assertEquals(1, report.getFailures().size());
+        assertEquals("invalid", report.getFailures().get(0).getName());
+        assertEquals("build", report.getFailures().get(0).getStage());
+
+        assertEquals(4, report.getStages().size());
+        assertEquals(n + 1, report.getStages().get(0).getItems());
+        assertEquals(n, report.getStages().get(1).getItems());
+        assertEquals(n, report.getStages().get(3).getItems());
+        assertTrue(report.getStages().get(0).getMaxQueueSize() <= 2);
+    }
+
+    @Test
+    public void testErrors(@TempDir Path dir) throws IOException {
+        Path input = dir.resolve("in"), output = dir.resolve("out");
+        Files.createDirectories(input);
+        int n = 6;
+        for (int i = 0; i < n; ++i) {
+            Files.writeString(input.resolve("s" + i + ".csv"), random(24 + i, 3, i));
+        }
+        Pipeline<Integer> pipeline = Pipeline.<Integer>builder()
+                .input(input)
+                .output(output)
+                .analysis(v -> {
+                    if (v.length() % 2 == 0) {
+                        throw new OutOfMemoryError("test");
+                    }
+                    return v.length();
+                })
+                .writer((name, len, out) -> Files.writeString(out.resolve(name + ".csv"), len.toString()))
+                .listener(new Pipeline.Listener() {
+                    @Override
+                    public void started(int count) {
+                    }
+
+                    @Override
+                    public void processed(String name) {
+                    }
+
+                    @Override
+                    public void failed(Pipeline.Failure failure) {
+                        throw new IllegalStateException("listener");
+                    }
+                })
+                .capacity(1)
+                .build();
+        // errors thrown by the analysis or by the listener must not block the pipeline
+        Pipeline.Report report = assertTimeoutPreemptively(Duration.ofSeconds(30), pipeline::run);
+        assertEquals(n / 2, report.getStages().get(3).getItems());
+        assertEquals(n / 2, report.getStages().get(2).getFailures());
+        assertEquals(n, report.getFailures().size());
+        assertTrue(report.getFailures().stream().anyMatch(f -> f.getError() instanceof OutOfMemoryError));
+        assertTrue(report.getFailures().stream().anyMatch(f -> f.getError() instanceof IllegalStateException));
+    }
+
+    @Test
+    public void testParse() {
+        String csv = "period;vintage;value\r\n2020-01-01;2020-02-15;1.5\r\n2020-01-01;2020-03-15;NA\r\n2020-02-01;2020-03-15;2\r\n";
+        TsDataVintages<LocalDate> v = VintagesCsv.parse(csv.getBytes(StandardCharsets.US_ASCII), TsUnit.MONTH);
+        assertEquals(2, v.length());
+        assertEquals(2, v.getVintages().size());
+        assertEquals(1.5, v.data(0, LocalDate.of(2020, 3, 15)));
+    }
+
+    private static String random(int length, int vintages, int seed) {
+        Random rnd = new Random(seed);
+        StringBuilder builder = new StringBuilder("period,vintage,value\n");
+        TsPeriod start = TsPeriod.monthly(2010, 1);
+        for (int i = 0; i < length; ++i) {
+            for (int k = 0; k < vintages; ++k) {
+                builder.append(start.start().toLocalDate()).append(',')
+                        .append(start.end().toLocalDate().plusDays(30 * k)).append(',')
+                        .append(rnd.nextDouble()).append('\n');
+            }
+            start = start.next();
+        }
+        return builder.toString();
+    }
+}
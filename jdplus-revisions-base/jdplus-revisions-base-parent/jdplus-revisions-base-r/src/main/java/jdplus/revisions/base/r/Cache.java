@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.r;
+
+import java.util.function.Supplier;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.core.cache.ResultCache;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+
+/**
+ * Optional cache of the results of Vintages and Utility (disabled by
+ * default). Repeated calls on unchanged data are then answered without any
+ * computation. Each caller gets its own copy of the arrays; the matrices are
+ * returned in a read-only form (see ResultCache).
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class Cache {
+
+    private volatile ResultCache CACHE;
+
+    /**
+     * Enables the cache (previous results are discarded)
+     *
+     * @param megabytes Maximum estimated size of the cached results
+     */
+    public void enable(double megabytes) {
+        CACHE = new ResultCache((long) (megabytes * 1024 * 1024));
+    }
+
+    public void disable() {
+        CACHE = null;
+    }
+
+    public boolean isEnabled() {
+        return CACHE != null;
+    }
+
+    public void clear() {
+        ResultCache cache = CACHE;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Statistics of the cache
+     *
+     * @return hits, misses, evictions, entries, size (bytes), capacity
+     * (bytes). Null if the cache is disabled
+     */
+    public double[] stats() {
+        ResultCache cache = CACHE;
+        if (cache == null) {
+            return null;
+        }
+        ResultCache.Stats stats = cache.stats();
+        return new double[]{stats.getHits(), stats.getMisses(), stats.getEvictions(),
+            stats.getEntries(), stats.getSize(), stats.getCapacity()};
+    }
+
+    <T> T get(TsDataVintages<?> input, String analysis, Object[] parameters, Supplier<T> computer) {
+        ResultCache cache = CACHE;
+        return cache == null ? computer.get()
+                : cache.get(new ResultCache.Input(input.getFingerprint(), input.length(), input.getVintages().size()), analysis, parameters, computer);
+    }
+
+    <T> T get(Matrix input, String analysis, Object[] parameters, Supplier<T> computer) {
+        ResultCache cache = CACHE;
+        return cache == null ? computer.get() : cache.get(ResultCache.Input.of(input), analysis, parameters, computer);
+    }
+}
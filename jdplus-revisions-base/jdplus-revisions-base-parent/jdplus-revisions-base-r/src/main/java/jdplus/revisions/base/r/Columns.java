@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.r;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import jdplus.toolkit.base.api.data.DoubleSeqCursor;
+import jdplus.toolkit.base.api.stats.StatisticalTest;
+
+/**
+ * Layout of a part of a result table: the name of each column and the way its
+ * value is extracted from the results, defined at the same place so that the
+ * names and the values can't drift apart
+ *
+ * @author PALATEJ
+ * @param <T> Type of the results
+ */
+final class Columns<T> {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<ToDoubleFunction<T>> values = new ArrayList<>();
+
+    Columns<T> add(String name, ToDoubleFunction<T> value) {
+        names.add(name);
+        values.add(value);
+        return this;
+    }
+
+    /**
+     * Value (named "name") and p-value (named "name.pvalue") of a test
+     */
+    Columns<T> test(String name, Function<T, StatisticalTest> test) {
+        return add(name, t -> test.apply(t).getValue())
+                .add(name + ".pvalue", t -> test.apply(t).getPvalue());
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    String[] names() {
+        return names.toArray(String[]::new);
+    }
+
+    void write(T t, DoubleSeqCursor.OnMutable cursor) {
+        for (ToDoubleFunction<T> value : values) {
+            cursor.setAndNext(value.applyAsDouble(t));
+        }
+    }
+
+    double[] values(T t) {
+        double[] v = new double[values.size()];
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = values.get(i).applyAsDouble(t);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.r;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.parametric.Specification;
+import jdplus.revisions.base.api.timeseries.IsoDates;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.core.panel.PanelProcessor;
+
+/**
+ * Analysis of a panel of series in one call
+ *
+ * @author PALATEJ
+ */
+@lombok.experimental.UtilityClass
+public class Panel {
+
+    /**
+     * Outcome of the analysis of one series of the panel
+     */
+    @lombok.Value
+    public static class Result {
+
+        /**
+         * The table (null if the series could not be processed)
+         */
+        RegressionBasedTable<LocalDate> table;
+        /**
+         * The reason of the failure (null if the series was processed)
+         */
+        String error;
+
+        public boolean isValid() {
+            return table != null;
+        }
+    }
+
+    /**
+     * Vertical tables of all the series of the panel
+     *
+     * @param panel The series
+     * @param first First vintage
+     * @param last Last vintage
+     * @param parallelism Number of threads (&le 0 for the number of
+     * processors)
+     * @return The results, in the order of the panel
+     */
+    public List<Result> verticalTables(Vintages[] panel, String first, String last, int parallelism) {
+        return verticalTables(panel, first, last, null, parallelism);
+    }
+
+    /**
+     * Vertical tables of all the series of the panel, after selection
+     *
+     * @param panel The series
+     * @param first First vintage
+     * @param last Last vintage
+     * @param spec Selection applied on each series (null for the complete
+     * series)
+     * @param parallelism Number of threads (&le 0 for the number of
+     * processors)
+     * @return The results, in the order of the panel
+     */
+    public List<Result> verticalTables(Vintages[] panel, String first, String last, Specification spec, int parallelism) {
+        LocalDate fdate = IsoDates.parse(first);
+        LocalDate ldate = IsoDates.parse(last);
+        return tables(panel, PanelProcessor.verticalTable(fdate, ldate), spec, parallelism);
+    }
+
+    /**
+     * Diagonal tables of all the series of the panel
+     *
+     * @param panel The series
+     * @param first First release
+     * @param last Last release
+     * @param parallelism Number of threads (&le 0 for the number of
+     * processors)
+     * @return The results, in the order of the panel
+     */
+    public List<Result> diagonalTables(Vintages[] panel, int first, int last, int parallelism) {
+        return diagonalTables(panel, first, last, null, parallelism);
+    }
+
+    /**
+     * Diagonal tables of all the series of the panel, after selection
+     *
+     * @param panel The series
+     * @param first First release
+     * @param last Last release
+     * @param spec Selection applied on each series (null for the complete
+     * series)
+     * @param parallelism Number of threads (&le 0 for the number of
+     * processors)
+     * @return The results, in the order of the panel
+     */
+    public List<Result> diagonalTables(Vintages[] panel, int first, int last, Specification spec, int parallelism) {
+        return tables(panel, PanelProcessor.diagonalTable(first, last), spec, parallelism);
+    }
+
+    private List<Result> tables(Vintages[] panel, Function<TsDataVintages<LocalDate>, RegressionBasedTable<LocalDate>> analysis, Specification spec, int parallelism) {
+        PanelProcessor.Builder builder = PanelProcessor.builder()
+                .specification(spec);
+        if (parallelism > 0) {
+            builder.parallelism(parallelism);
+        }
+        List<TsDataVintages<LocalDate>> all = new AbstractList<TsDataVintages<LocalDate>>() {
+            @Override
+            public TsDataVintages<LocalDate> get(int index) {
+                return panel[index].getCore();
+            }
+
+            @Override
+            public int size() {
+                return panel.length;
+            }
+        };
+        // each series writes its own slot
+        Result[] rslt = new Result[panel.length];
+        builder.build().process(all, analysis, new PanelProcessor.Sink<RegressionBasedTable<LocalDate>>() {
+            @Override
+            public void accept(int series, RegressionBasedTable<LocalDate> table) {
+                rslt[series] = table == null ? new Result(null, "no result") : new Result(table, null);
+            }
+
+            @Override
+            public void failed(int series, RuntimeException err) {
+                String msg = err.getMessage();
+                rslt[series] = new Result(null, msg == null ? err.getClass().getSimpleName() : msg);
+            }
+        });
+        return Arrays.asList(rslt);
+    }
+}
@@ -17,6 +17,10 @@
 package jdplus.revisions.base.r;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import jdplus.revisions.base.api.parametric.AutoCorrelationTests;
 import jdplus.revisions.base.api.parametric.Bias;
 import jdplus.revisions.base.api.parametric.Coefficient;
@@ -24,13 +28,20 @@ import jdplus.toolkit.base.api.data.DoubleSeq;
 import jdplus.toolkit.base.api.data.DoubleSeqCursor;
 import jdplus.revisions.base.api.parametric.OlsTests;
 import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.parametric.RegressionAutoCorrelation;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.parametric.RegressionTests;
 import jdplus.revisions.base.api.parametric.RevisionAnalysis;
 import jdplus.revisions.base.api.parametric.SignalNoise;
 import jdplus.revisions.base.api.parametric.UnitRoot;
-import jdplus.revisions.base.core.parametric.AutoCorrelationTestsComputer;
+import jdplus.revisions.base.core.monitoring.RegressionEvent;
+import jdplus.revisions.base.core.monitoring.SweepEvent;
 import jdplus.revisions.base.core.parametric.BiasComputer;
+import jdplus.revisions.base.core.parametric.Distributions;
+import jdplus.revisions.base.core.parametric.Feasibility;
 import jdplus.toolkit.base.core.math.matrices.FastMatrix;
 import jdplus.revisions.base.core.parametric.OlsTestsComputer;
+import jdplus.revisions.base.core.parametric.RegressionAutoCorrelationComputer;
 import jdplus.revisions.base.core.parametric.SignalNoiseComputer;
 import jdplus.toolkit.base.core.stats.StatUtility;
 import jdplus.toolkit.base.api.math.matrices.Matrix;
@@ -39,14 +50,33 @@ import jdplus.revisions.base.core.parametric.Theil2;
 import jdplus.revisions.base.core.parametric.UnitRootTestsComputer;
 import jdplus.toolkit.base.api.data.DoublesMath;
 import jdplus.toolkit.base.api.dstats.ContinuousDistribution;
-import jdplus.toolkit.base.api.stats.StatisticalTest;
 import jdplus.toolkit.base.api.stats.TestType;
+import jdplus.toolkit.base.core.data.DataBlock;
 import jdplus.toolkit.base.core.dstats.T;
 import jdplus.toolkit.base.core.stats.tests.DickeyFuller;
 import jdplus.toolkit.base.core.stats.tests.JohansenCointegration;
 import jdplus.toolkit.base.core.stats.tests.TestsUtility;
 
 /**
+ * Entry points for R.
+ *
+ * Each function is available in two forms: one working on Matrix objects
+ * and one working on raw column-major arrays (as used by R), where the
+ * results are written in a buffer provided by the caller. The second form
+ * avoids any copy of the inputs and of the results.
+ *
+ * The functions that may fail on some rows (autoCorrelation, slopeAndDrift,
+ * slopeAndDriftWithAutoCorrelation, cointegration, vecm, unitroot,
+ * efficiencyModel1/2, orthogonallyModel1/2) check the data of each row
+ * beforehand. Their results contain an additional last column with the
+ * status of the row (see Feasibility; 0 for a valid row). Invalid rows are
+ * filled with NaN.
+ *
+ * The names of the columns of the results are given by the corresponding
+ * "...Fields" functions (for instance slopeAndDriftFields()).
+ *
+ * When the Cache is enabled, the results of the Matrix form are cached,
+ * keyed by the content of the input and by the parameters.
  *
  * @author PALATEJ
  */
@@ -61,21 +91,51 @@ public class Utility {
      * @return
      */
     public double[] theil(Matrix vintages, int gap) {
+        return Cache.get(vintages, "theil", new Object[]{gap}, () -> {
+            if (gap < 1) {
+                throw new IllegalArgumentException("gap should be >= 1");
+            }
+            int n = vintages.getColumnsCount() - gap;
+            if (n <= 0) {
+                return null;
+            }
+            double[] u = new double[n];
+            theil(vintages::column, vintages.getRowsCount(), n, gap, u);
+            return u;
+        });
+    }
+
+    /**
+     * Theil coefficients computed on the columns of the vintages matrix
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param gap Delay between the compared vintages (should be &ge 1)
+     * @param rslt Buffer that will contain the coefficients (length &ge
+     * ncols-gap)
+     * @return The number of coefficients written in rslt
+     */
+    public int theil(double[] vintages, int nrows, int ncols, int gap, double[] rslt) {
         if (gap < 1) {
             throw new IllegalArgumentException("gap should be >= 1");
         }
-        int n = vintages.getColumnsCount() - gap;
+        int n = ncols - gap;
         if (n <= 0) {
-            return null;
+            return 0;
         }
-        double[] u = new double[n];
+        theil(columns(vintages, nrows, ncols), nrows, n, gap, buffer(rslt, n, 1));
+        return n;
+    }
+
+    private void theil(IntFunction<DoubleSeq> vintages, int nr, int n, int gap, double[] u) {
+        SweepEvent sweep = SweepEvent.start();
+        double[] a = new double[nr], b = new double[nr];
         for (int i = 0; i < n; ++i) {
-            DoubleSeq a = vintages.column(i + gap);
-            DoubleSeq b = vintages.column(i);
-            Matrix mc = PreTreatment.cleanNaN(a, b);
-            u[i] = StatUtility.theilInequalityCoefficient(mc.column(0), mc.column(1));
+            int m = PreTreatment.cleanNaN(vintages.apply(i + gap), vintages.apply(i), a, b);
+            u[i] = StatUtility.theilInequalityCoefficient(DataBlock.of(a, 0, m), DataBlock.of(b, 0, m));
         }
-        return u;
+        sweep.end("theil", nr, n + gap, n, 0);
     }
 
     /**
@@ -88,26 +148,127 @@ public class Utility {
      * @return
      */
     public double[] theil2(Matrix vintages, int gap) {
+        return Cache.get(vintages, "theil2", new Object[]{gap}, () -> {
+            if (gap < 1) {
+                throw new IllegalArgumentException("gap should be >= 1");
+            }
+            int n = vintages.getColumnsCount() - gap;
+            if (n <= 0) {
+                return null;
+            }
+            double[] u = new double[n];
+            theil2(vintages::column, vintages.getRowsCount(), n, gap, u);
+            return u;
+        });
+    }
+
+    /**
+     * Theil2 coefficients computed on the columns of the vintages matrix
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param gap Delay between the compared vintages (should be &ge 1)
+     * @param rslt Buffer that will contain the coefficients (length &ge
+     * ncols-gap)
+     * @return The number of coefficients written in rslt
+     */
+    public int theil2(double[] vintages, int nrows, int ncols, int gap, double[] rslt) {
         if (gap < 1) {
             throw new IllegalArgumentException("gap should be >= 1");
         }
-        int n = vintages.getColumnsCount() - gap;
+        int n = ncols - gap;
         if (n <= 0) {
-            return null;
+            return 0;
         }
-        double[] u = new double[n];
+        theil2(columns(vintages, nrows, ncols), nrows, n, gap, buffer(rslt, n, 1));
+        return n;
+    }
+
+    private void theil2(IntFunction<DoubleSeq> vintages, int nr, int n, int gap, double[] u) {
+        SweepEvent sweep = SweepEvent.start();
+        double[] a = new double[nr], b = new double[nr];
         for (int i = 0; i < n; ++i) {
-            DoubleSeq a = vintages.column(i + gap);
-            DoubleSeq b = vintages.column(i);
-            Matrix mc = PreTreatment.cleanNaN(a, b);
-            u[i] = Theil2.U2(mc.column(0), mc.column(1));
+            int m = PreTreatment.cleanNaN(vintages.apply(i + gap), vintages.apply(i), a, b);
+            u[i] = Theil2.U2(DataBlock.of(a, 0, m), DataBlock.of(b, 0, m));
         }
-        return u;
+        sweep.end("theil2", nr, n + gap, n, 0);
+    }
+
+    // Layouts of the results. The "...Fields" functions and the writers
+    // of the results use the same definitions
+    private final Columns<OlsTests> OLS_HEADER = new Columns<OlsTests>()
+            .add("n", OlsTests::getN)
+            .add("R2", OlsTests::getR2)
+            .add("F", OlsTests::getF);
+
+    private final Columns<RegressionTests> OLS_DIAGNOSTICS = new Columns<RegressionTests>()
+            .add("skewness", RegressionTests::getSkewness)
+            .add("kurtosis", RegressionTests::getKurtosis)
+            .test("jb", RegressionTests::getJarqueBera)
+            .add("bp.R2", RegressionTests::getBpr2)
+            .test("bp", RegressionTests::getBreuschPagan)
+            .add("white.R2", RegressionTests::getWr2)
+            .test("white", RegressionTests::getWhite)
+            .add("arch.R2", RegressionTests::getArchr2)
+            .test("arch", RegressionTests::getArch);
+
+    private final Columns<AutoCorrelationTests> AC_COLUMNS = new Columns<AutoCorrelationTests>()
+            .add("bg.R2", AutoCorrelationTests::getBgr2)
+            .test("bg", AutoCorrelationTests::getBreuschGodfrey)
+            .test("lb", AutoCorrelationTests::getLjungBox);
+
+    private final Columns<DickeyFuller> EG_COLUMNS = new Columns<DickeyFuller>()
+            .add("rho", DickeyFuller::getRho)
+            .add("ser", DickeyFuller::getSer)
+            .add("test", DickeyFuller::getTest)
+            .add("pvalue", DickeyFuller::getPvalue);
+
+    private final Columns<UnitRoot> UR_COLUMNS = unitRootColumns();
+
+    private final Columns<Bias> BIAS_COLUMNS = new Columns<Bias>()
+            .add("n", Bias::getN)
+            .add("mu", Bias::getMu)
+            .add("sigma", Bias::getSigma)
+            .add("t", Bias::getT)
+            .add("tpvalue", Bias::getTPvalue)
+            .add("ar", Bias::getAr)
+            .add("adjustedsigma", Bias::getAdjustedSigma)
+            .add("adjustedt", Bias::getAdjustedT)
+            .add("adjustedtpvalue", Bias::getAdjustedTPvalue);
+
+    private final Columns<SignalNoise> SN_COLUMNS = new Columns<SignalNoise>()
+            .add("news.R2", SignalNoise::getNewsR2)
+            .add("news.F", SignalNoise::getNewsF)
+            .add("news.pvalue", SignalNoise::getNewsPvalue)
+            .add("noise.R2", SignalNoise::getNoiseR2)
+            .add("noise.F", SignalNoise::getNoiseF)
+            .add("noise.pvalue", SignalNoise::getNoisePvalue);
+
+    /**
+     * Value, stdev, statistic and pvalue of each test (Dickey-Fuller,
+     * augmented Dickey-Fuller, Dickey-Fuller with trend and intercept,
+     * Philips-Perron)
+     */
+    private Columns<UnitRoot> unitRootColumns() {
+        Columns<UnitRoot> columns = new Columns<>();
+        unitRootTest(columns, "df", UnitRoot::getDickeyFuller);
+        unitRootTest(columns, "adf", UnitRoot::getAugmentedDickeyFuller);
+        unitRootTest(columns, "dfct", UnitRoot::getDickeyFullerWithTrendAndIntercept);
+        unitRootTest(columns, "pp", UnitRoot::getPhilipsPerron);
+        return columns;
+    }
+
+    private void unitRootTest(Columns<UnitRoot> columns, String name, Function<UnitRoot, UnitRoot.Test> test) {
+        columns.add(name, ur -> test.apply(ur).getValue())
+                .add(name + ".stdev", ur -> test.apply(ur).getStdev())
+                .add(name + ".statistic", ur -> test.apply(ur).getStatistic())
+                .add(name + ".pvalue", ur -> test.apply(ur).getPvalue());
     }
 
     // apply it for other methods
     // use the modified code in R
-    private final int OLS = 16, C = 3;
+    private final int OLS = OLS_HEADER.size() + OLS_DIAGNOSTICS.size(), C = 3;
 
     /**
      * v(t)=a+b*v(t-gap)
@@ -117,41 +278,106 @@ public class Utility {
      * @return
      */
     public Matrix slopeAndDrift(Matrix vintages, int gap) {
+        return Cache.get(vintages, "slopeAndDrift", new Object[]{gap}, () -> {
+            if (gap < 1) {
+                throw new IllegalArgumentException("gap should be >= 1");
+            }
+            int n = vintages.getColumnsCount() - gap;
+            if (n <= 0) {
+                return null;
+            }
+            FastMatrix rslt = FastMatrix.make(n, OLS + 2 * C + STATUS);
+            slopeAndDrift(vintages::column, vintages.getRowsCount(), n, gap, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * v(t)=a+b*v(t-gap)
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param gap Delay between the compared vintages (should be &ge 1)
+     * @param rslt Buffer that will contain the results (column-major,
+     * (ncols-gap) x 23, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int slopeAndDrift(double[] vintages, int nrows, int ncols, int gap, double[] rslt) {
         if (gap < 1) {
             throw new IllegalArgumentException("gap should be >= 1");
         }
-        int n = vintages.getColumnsCount() - gap;
+        int n = ncols - gap;
         if (n <= 0) {
-            return null;
+            return 0;
         }
-        FastMatrix rslt = FastMatrix.make(n, OLS + 2 * C);
+        slopeAndDrift(columns(vintages, nrows, ncols), nrows, n, gap, rows(rslt, n, OLS + 2 * C + STATUS));
+        return n;
+    }
 
+    private void slopeAndDrift(IntFunction<DoubleSeq> vintages, int nr, int n, int gap, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] y = new double[nr], x = new double[nr];
         for (int i = 0; i < n; ++i) {
-            DoubleSeq y = vintages.column(i + gap);
-            DoubleSeq x = vintages.column(i);
-            Matrix yxCorr = PreTreatment.cleanNaN(y, x);
-            DoubleSeqCursor.OnMutable cursor = rslt.row(i).cursor();
-            OlsTests test = OlsTestsComputer.of(yxCorr.column(0), yxCorr.column(1));
-            olsInformation(test, cursor);
-            
-            // Test beta1=1 instead of beta1=0
-            double N = rslt.get(i, 0);
-            int nx = 2;
-            double slopeEst = rslt.get(i, 6);
-            double slopeStdErr = rslt.get(i, 7);
-            double t1 = (slopeEst-1)/slopeStdErr;
-            T tdist = new T(N-nx);
-            double pvalT1 = TestsUtility.pvalue(tdist, t1, TestType.TwoSided);
-            rslt.set(i, 8, pvalT1);
-        }
-        
-        return rslt;
+            int m = PreTreatment.cleanNaN(vintages.apply(i + gap), vintages.apply(i), y, x);
+            DataBlock row = rslt.apply(i);
+            if (!ols(DataBlock.of(y, 0, m), DataBlock.of(x, 0, m), row)) {
+                ++skipped;
+                continue;
+            }
+            slopeTest(row);
+        }
+        sweep.end("slopeAndDrift", nr, n + gap, n, skipped);
     }
 
-    private final int AC = 5;
+    private void slopeTest(DataBlock row) {
+        // Test beta1=1 instead of beta1=0
+        double N = row.get(0);
+        int nx = 2;
+        double slopeEst = row.get(6);
+        double slopeStdErr = row.get(7);
+        double t1 = (slopeEst-1)/slopeStdErr;
+        T tdist = Distributions.t(N-nx);
+        double pvalT1 = TestsUtility.pvalue(tdist, t1, TestType.TwoSided);
+        row.set(8, pvalT1);
+    }
 
     /**
-     * v(t)=a+b*v(t-gap)
+     * Fits y=a+b*x and writes the OLS information in the row, or marks the row
+     * as invalid when the model can't be estimated.
+     *
+     * @return true if the row contains valid results
+     */
+    private boolean ols(DoubleSeq y, DoubleSeq x, DataBlock row) {
+        int status = Feasibility.regression(y, x);
+        if (status == Feasibility.OK) {
+            try {
+                OlsTests test = OlsTestsComputer.of(y, x);
+                if (test != null) {
+                    olsInformation(test, row.cursor());
+                    return true;
+                }
+            } catch (Exception err) {
+            }
+            status = Feasibility.FAILED;
+        }
+        invalid(row, status);
+        return false;
+    }
+
+    private final int AC = AC_COLUMNS.size();
+
+    /**
+     * Status column (see Feasibility), added at the end of the results of the
+     * functions that may fail on some rows. 0 means a valid row
+     */
+    private final int STATUS = 1;
+
+    /**
+     * Auto-correlation tests (Breusch-Godfrey, Ljung-Box) on the residuals of
+     * v(i)=a+b*v(j), for each pair of vintages i &lt; j. The rows are in the
+     * order (0,1), (0,2)..., (1,2)...
      *
      * @param vintages Vintages
      * @param nbg Number of lags in Breusch-Godfrey test
@@ -159,91 +385,302 @@ public class Utility {
      * @return
      */
     public Matrix autoCorrelation(Matrix vintages, int nbg, int nlb) {
-        int n = vintages.getColumnsCount();
-        FastMatrix rslt = FastMatrix.make(n * (n - 1) / 2, AC);
+        return Cache.get(vintages, "autoCorrelation", new Object[]{nbg, nlb}, () -> {
+            int n = vintages.getColumnsCount();
+            FastMatrix rslt = FastMatrix.make(n * (n - 1) / 2, AC + STATUS);
+            autoCorrelation(vintages::column, vintages.getRowsCount(), n, nbg, nlb, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * Auto-correlation tests (Breusch-Godfrey, Ljung-Box) on the residuals of
+     * v(i)=a+b*v(j), for each pair of vintages i &lt; j. The rows are in the
+     * order (0,1), (0,2)..., (1,2)...
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param nbg Number of lags in Breusch-Godfrey test
+     * @param nlb Number of lag in Ljung-Box
+     * @param rslt Buffer that will contain the results (column-major,
+     * ncols*(ncols-1)/2 x 6, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int autoCorrelation(double[] vintages, int nrows, int ncols, int nbg, int nlb, double[] rslt) {
+        int m = ncols * (ncols - 1) / 2;
+        autoCorrelation(columns(vintages, nrows, ncols), nrows, ncols, nbg, nlb, rows(rslt, m, AC + STATUS));
+        return m;
+    }
 
+    private void autoCorrelation(IntFunction<DoubleSeq> vintages, int nr, int n, int nbg, int nlb, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] y = new double[nr], x = new double[nr];
         for (int i = 0, k = 0; i < n; ++i) {
             for (int j = i + 1; j < n; ++j) {
+                DataBlock row = rslt.apply(k++);
                 try {
-                    DoubleSeq y = vintages.column(i);
-                    DoubleSeq x = vintages.column(j);
-                    Matrix yxCorr = PreTreatment.cleanNaN(y, x);
-                    DoubleSeqCursor.OnMutable cursor = rslt.row(k++).cursor();
-                    AutoCorrelationTests test = AutoCorrelationTestsComputer.of(yxCorr.column(0), yxCorr.column(1), nbg, nlb);
-                    acInformation(test, cursor);
+                    int m = PreTreatment.cleanNaN(vintages.apply(i), vintages.apply(j), y, x);
+                    DataBlock yc = DataBlock.of(y, 0, m), xc = DataBlock.of(x, 0, m);
+                    int status = Feasibility.autoCorrelation(yc, xc, nbg, nlb);
+                    if (status != Feasibility.OK) {
+                        invalid(row, status);
+                        ++skipped;
+                        continue;
+                    }
+                    AutoCorrelationTests test = RegressionAutoCorrelationComputer.autoCorrelation(yc, xc, nbg, nlb);
+                    if (test == null) {
+                        invalid(row, Feasibility.FAILED);
+                        ++skipped;
+                        continue;
+                    }
+                    acInformation(test, row.cursor());
                 } catch (Exception err) {
+                    invalid(row, Feasibility.FAILED);
+                    ++skipped;
                 }
             }
         }
-        return rslt;
+        sweep.end("autoCorrelation", nr, n, n * (n - 1) / 2, skipped);
+    }
+
+    /**
+     * v(t)=a+b*v(t-gap), followed by the auto-correlation tests on the
+     * residuals of that regression (same estimation). The columns are the
+     * ones of slopeAndDrift followed by the ones of autoCorrelation
+     *
+     * @param vintages Vintages
+     * @param gap Delay between the compared vintages (should be &ge 1)
+     * @param nbg Number of lags in Breusch-Godfrey test
+     * @param nlb Number of lag in Ljung-Box
+     * @return
+     */
+    public Matrix slopeAndDriftWithAutoCorrelation(Matrix vintages, int gap, int nbg, int nlb) {
+        return Cache.get(vintages, "slopeAndDriftWithAutoCorrelation", new Object[]{gap, nbg, nlb}, () -> {
+            if (gap < 1) {
+                throw new IllegalArgumentException("gap should be >= 1");
+            }
+            int n = vintages.getColumnsCount() - gap;
+            if (n <= 0) {
+                return null;
+            }
+            FastMatrix rslt = FastMatrix.make(n, OLS + 2 * C + AC + STATUS);
+            slopeAndDriftWithAutoCorrelation(vintages::column, vintages.getRowsCount(), n, gap, nbg, nlb, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * See slopeAndDriftWithAutoCorrelation(Matrix, int, int, int)
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param gap Delay between the compared vintages (should be &ge 1)
+     * @param nbg Number of lags in Breusch-Godfrey test
+     * @param nlb Number of lag in Ljung-Box
+     * @param rslt Buffer that will contain the results (column-major,
+     * (ncols-gap) x 28, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int slopeAndDriftWithAutoCorrelation(double[] vintages, int nrows, int ncols, int gap, int nbg, int nlb, double[] rslt) {
+        if (gap < 1) {
+            throw new IllegalArgumentException("gap should be >= 1");
+        }
+        int n = ncols - gap;
+        if (n <= 0) {
+            return 0;
+        }
+        slopeAndDriftWithAutoCorrelation(columns(vintages, nrows, ncols), nrows, n, gap, nbg, nlb, rows(rslt, n, OLS + 2 * C + AC + STATUS));
+        return n;
     }
 
-    private final int EG = 4;
+    private void slopeAndDriftWithAutoCorrelation(IntFunction<DoubleSeq> vintages, int nr, int n, int gap, int nbg, int nlb, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] y = new double[nr], x = new double[nr];
+        for (int i = 0; i < n; ++i) {
+            DataBlock row = rslt.apply(i);
+            try {
+                int m = PreTreatment.cleanNaN(vintages.apply(i + gap), vintages.apply(i), y, x);
+                DataBlock yc = DataBlock.of(y, 0, m), xc = DataBlock.of(x, 0, m);
+                int status = Feasibility.autoCorrelation(yc, xc, nbg, nlb);
+                if (status != Feasibility.OK) {
+                    invalid(row, status);
+                    ++skipped;
+                    continue;
+                }
+                RegressionAutoCorrelation test = RegressionAutoCorrelationComputer.of(yc, xc, nbg, nlb);
+                if (test == null || test.getRegression() == null) {
+                    invalid(row, Feasibility.FAILED);
+                    ++skipped;
+                    continue;
+                }
+                olsInformation(test.getRegression(), row.range(0, OLS + 2 * C).cursor());
+                slopeTest(row);
+                acInformation(test.getAutoCorrelation(), row.range(OLS + 2 * C, OLS + 2 * C + AC).cursor());
+            } catch (Exception err) {
+                invalid(row, Feasibility.FAILED);
+                ++skipped;
+            }
+        }
+        sweep.end("slopeAndDriftWithAutoCorrelation", nr, n + gap, n, skipped);
+    }
+
+    private final int EG = EG_COLUMNS.size();
 
     /**
-     * v(t)=a+b*v(t-gap)
+     * Engle-Granger test (augmented Dickey-Fuller test on the residuals of
+     * v(j)=a+b*v(i)), for each pair of vintages i &lt; j. The rows are in the
+     * order (0,1), (0,2)..., (1,2)...
      *
      * @param vintages Vintages
      * @param adfk Number of lags in augmented dickey-fuller test
      * @return
      */
     public Matrix cointegration(Matrix vintages, int adfk) {
-        int n = vintages.getColumnsCount();
-        FastMatrix rslt = FastMatrix.make(n * (n - 1) / 2, EG);
+        return Cache.get(vintages, "cointegration", new Object[]{adfk}, () -> {
+            int n = vintages.getColumnsCount();
+            FastMatrix rslt = FastMatrix.make(n * (n - 1) / 2, EG + STATUS);
+            cointegration(vintages::column, vintages.getRowsCount(), n, adfk, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * Engle-Granger test (augmented Dickey-Fuller test on the residuals of
+     * v(j)=a+b*v(i)), for each pair of vintages i &lt; j. The rows are in the
+     * order (0,1), (0,2)..., (1,2)...
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param adfk Number of lags in augmented dickey-fuller test
+     * @param rslt Buffer that will contain the results (column-major,
+     * ncols*(ncols-1)/2 x 5, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int cointegration(double[] vintages, int nrows, int ncols, int adfk, double[] rslt) {
+        int m = ncols * (ncols - 1) / 2;
+        cointegration(columns(vintages, nrows, ncols), nrows, ncols, adfk, rows(rslt, m, EG + STATUS));
+        return m;
+    }
 
+    private void cointegration(IntFunction<DoubleSeq> vintages, int nr, int n, int adfk, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] x = new double[nr], y = new double[nr];
         for (int i = 0, k = 0; i < n; ++i) {
             for (int j = i + 1; j < n; ++j) {
+                DataBlock row = rslt.apply(k++);
                 try {
-                    DoubleSeq x = vintages.column(i);
-                    DoubleSeq y = vintages.column(j);
-                    Matrix xyCorr = PreTreatment.cleanNaN(x, y);
-
-                    DoubleSeqCursor.OnMutable cursor = rslt.row(k++).cursor();
-                    DickeyFuller df = DickeyFuller.engleGranger(xyCorr.column(1), xyCorr.column(0))
-                            .numberOfLags(adfk).build();
+                    int m = PreTreatment.cleanNaN(vintages.apply(i), vintages.apply(j), x, y);
+                    DataBlock yc = DataBlock.of(y, 0, m), xc = DataBlock.of(x, 0, m);
+                    int status = Feasibility.cointegration(yc, xc, adfk);
+                    if (status != Feasibility.OK) {
+                        invalid(row, status);
+                        ++skipped;
+                        continue;
+                    }
+                    DoubleSeqCursor.OnMutable cursor = row.cursor();
+                    RegressionEvent event = RegressionEvent.start();
+                    DickeyFuller df = null;
+                    try {
+                        df = DickeyFuller.engleGranger(yc, xc)
+                                .numberOfLags(adfk).build();
+                    } finally {
+                        event.end(m, 1, df == null);
+                    }
                     if (df != null) {
-                        cursor.setAndNext(df.getRho());
-                        cursor.setAndNext(df.getSer());
-                        cursor.setAndNext(df.getTest());
-                        cursor.setAndNext(df.getPvalue());
+                        EG_COLUMNS.write(df, cursor);
+                    } else {
+                        invalid(row, Feasibility.FAILED);
+                        ++skipped;
                     }
                 } catch (Exception err) {
+                    invalid(row, Feasibility.FAILED);
+                    ++skipped;
                 }
             }
         }
-        return rslt;
+        sweep.end("cointegration", nr, n, n * (n - 1) / 2, skipped);
     }
 
     private static final int JOHANSEN = 2;
 
     /**
-     * v(t)=a+b*v(t-gap)
+     * Johansen cointegration tests (trace and max tests) on the VECM of each
+     * pair of vintages i &lt; j. The rows are in the order (0,1), (0,2)...,
+     * (1,2)...
      *
      * @param vintages Vintages
-     * @param lag Number of lags in augmented dickey-fuller test
-     * @param model
+     * @param lag Number of lags of the VAR
+     * @param model Deterministic terms (none, cnt or trend)
      * @return
      */
     public Matrix vecm(Matrix vintages, int lag, String model) {
-        int n = vintages.getColumnsCount();
-        FastMatrix rslt = FastMatrix.make(n * (n - 1) / 2, JOHANSEN * lag);
+        return Cache.get(vintages, "vecm", new Object[]{lag, model}, () -> {
+            int n = vintages.getColumnsCount();
+            FastMatrix rslt = FastMatrix.make(n * (n - 1) / 2, JOHANSEN * lag + STATUS);
+            vecm(vintages::column, vintages.getRowsCount(), n, lag, model, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * Johansen cointegration tests (trace and max tests) on the VECM of each
+     * pair of vintages i &lt; j. The rows are in the order (0,1), (0,2)...,
+     * (1,2)...
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param lag Number of lags of the VAR
+     * @param model Deterministic terms (none, cnt or trend)
+     * @param rslt Buffer that will contain the results (column-major,
+     * ncols*(ncols-1)/2 x (2*lag+1), the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int vecm(double[] vintages, int nrows, int ncols, int lag, String model, double[] rslt) {
+        int m = ncols * (ncols - 1) / 2;
+        vecm(columns(vintages, nrows, ncols), nrows, ncols, lag, model, rows(rslt, m, JOHANSEN * lag + STATUS));
+        return m;
+    }
+
+    private void vecm(IntFunction<DoubleSeq> vintages, int nr, int n, int lag, String model, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
         JohansenCointegration.ECDet ecdet = JohansenCointegration.ECDet.valueOf(model);
         JohansenCointegration computer = JohansenCointegration.builder()
                 .errorCorrectionModel(ecdet)
                 .lag(lag)
                 .build();
-        
-        for (int i = 0, k = 0; i < n; ++i) { 
+
+        double[] vi = new double[nr], vj = new double[nr];
+        for (int i = 0, k = 0; i < n; ++i) {
             for (int j = i + 1; j < n; ++j) {
-                DoubleSeq vi = vintages.column(i);
-                DoubleSeq vj = vintages.column(j);
-                Matrix vijCorr = PreTreatment.cleanNaN(vi, vj);  
-                FastMatrix M = FastMatrix.make(vijCorr.getRowsCount(), 2);
-                M.column(0).copy(vijCorr.column(0));
-                M.column(1).copy(vijCorr.column(1));
+                DataBlock row = rslt.apply(k++);
+                int m = PreTreatment.cleanNaN(vintages.apply(i), vintages.apply(j), vi, vj);
+                int status = Feasibility.vecm(DataBlock.of(vi, 0, m), DataBlock.of(vj, 0, m), lag);
+                if (status != Feasibility.OK) {
+                    invalid(row, status);
+                    ++skipped;
+                    continue;
+                }
+                FastMatrix M = FastMatrix.make(m, 2);
+                M.column(0).copy(DataBlock.of(vi, 0, m));
+                M.column(1).copy(DataBlock.of(vj, 0, m));
                 try {
-                    DoubleSeqCursor.OnMutable cursor = rslt.row(k++).cursor();
-                    computer.process(M, null);
+                    DoubleSeqCursor.OnMutable cursor = row.cursor();
+                    RegressionEvent event = RegressionEvent.start();
+                    boolean failed = true;
+                    try {
+                        computer.process(M, null);
+                        failed = false;
+                    } finally {
+                        event.end(m, 2, failed);
+                    }
                     for (int l = lag - 1; l >= 0; --l) {
                         cursor.setAndNext(computer.traceTest(l));
                     }
@@ -251,13 +688,15 @@ public class Utility {
                         cursor.setAndNext(computer.maxTest(l));
                     }
                 } catch (Exception err) {
+                    invalid(row, Feasibility.FAILED);
+                    ++skipped;
                 }
             }
         }
-        return rslt;
+        sweep.end("vecm", nr, n, n * (n - 1) / 2, skipped);
     }
 
-    private final int UR = 4 * 4;
+    private final int UR = UR_COLUMNS.size();
 
     /**
      * Computes unit roots tests. The tests are givenin the following order:
@@ -269,18 +708,72 @@ public class Utility {
      * @return
      */
     public Matrix unitroot(Matrix vintages, int adfk) {
-        int n = vintages.getColumnsCount();
-        FastMatrix rslt = FastMatrix.make(n, UR);
+        return unitroot(vintages, adfk, false);
+    }
 
-        for (int i = 0, k = 0; i < n; ++i) {
-            try {
-                DoubleSeqCursor.OnMutable cursor = rslt.row(k++).cursor();
-                UnitRoot ur = UnitRootTestsComputer.of(PreTreatment.cleanNaN(vintages.column(i)), adfk);
-                urInformation(ur, cursor);
-            } catch (Exception err) {
+    /**
+     * Computes unit roots tests (see unitroot(Matrix, int))
+     *
+     * @param vintages
+     * @param adfk Number of lags in augmented dickey-fuller test
+     * @param parallel The vintages are processed in parallel
+     * @return
+     */
+    public Matrix unitroot(Matrix vintages, int adfk, boolean parallel) {
+        return Cache.get(vintages, "unitroot", new Object[]{adfk}, () -> {
+            int n = vintages.getColumnsCount();
+            FastMatrix rslt = FastMatrix.make(n, UR + STATUS);
+            unitroot(vintages::column, n, adfk, parallel, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * Computes unit roots tests (see unitroot(Matrix, int))
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param adfk Number of lags in augmented dickey-fuller test
+     * @param rslt Buffer that will contain the results (column-major, ncols x
+     * 17, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int unitroot(double[] vintages, int nrows, int ncols, int adfk, double[] rslt) {
+        return unitroot(vintages, nrows, ncols, adfk, false, rslt);
+    }
+
+    /**
+     * Computes unit roots tests (see unitroot(Matrix, int))
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param adfk Number of lags in augmented dickey-fuller test
+     * @param parallel The vintages are processed in parallel
+     * @param rslt Buffer that will contain the results (column-major, ncols x
+     * 17, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int unitroot(double[] vintages, int nrows, int ncols, int adfk, boolean parallel, double[] rslt) {
+        unitroot(columns(vintages, nrows, ncols), ncols, adfk, parallel, rows(rslt, ncols, UR + STATUS));
+        return ncols;
+    }
+
+    private void unitroot(IntFunction<DoubleSeq> vintages, int n, int adfk, boolean parallel, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int[] status = new int[n];
+        UnitRoot[] all = UnitRootTestsComputer.of(vintages, n, adfk, parallel, status);
+        int skipped = 0;
+        for (int i = 0; i < n; ++i) {
+            if (all[i] != null) {
+                urInformation(all[i], rslt.apply(i).cursor());
+            } else {
+                invalid(rslt.apply(i), status[i] == Feasibility.OK ? Feasibility.FAILED : status[i]);
+                ++skipped;
             }
         }
-        return rslt;
+        sweep.end("unitroot", n == 0 ? 0 : vintages.apply(0).length(), n, n, skipped);
     }
 
     /**
@@ -291,26 +784,58 @@ public class Utility {
      * @return
      */
     public Matrix efficiencyModel1(Matrix vintages, int gap) {
+        return Cache.get(vintages, "efficiencyModel1", new Object[]{gap}, () -> {
+            if (gap < 1) {
+                throw new IllegalArgumentException("gap should be >= 1");
+            }
+            int n = vintages.getColumnsCount() - gap;
+            if (n <= 0) {
+                return null;
+            }
+            FastMatrix rslt = FastMatrix.make(n, OLS + 2 * C + STATUS);
+            efficiencyModel1(vintages::column, vintages.getRowsCount(), n, gap, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * rev(t)=a+b*v(t-gap)
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param gap Delay between the compared vintages (should be &ge 1)
+     * @param rslt Buffer that will contain the results (column-major,
+     * (ncols-gap) x 23, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int efficiencyModel1(double[] vintages, int nrows, int ncols, int gap, double[] rslt) {
         if (gap < 1) {
             throw new IllegalArgumentException("gap should be >= 1");
         }
-        int n = vintages.getColumnsCount() - gap;
+        int n = ncols - gap;
         if (n <= 0) {
-            return null;
+            return 0;
         }
-        FastMatrix rslt = FastMatrix.make(n, OLS + 2 * C);
+        efficiencyModel1(columns(vintages, nrows, ncols), nrows, n, gap, rows(rslt, n, OLS + 2 * C + STATUS));
+        return n;
+    }
 
+    private void efficiencyModel1(IntFunction<DoubleSeq> vintages, int nr, int n, int gap, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] yc = new double[nr], xc = new double[nr];
         for (int i = 0; i < n; ++i) {
-            
-            DoubleSeq x = vintages.column(i);
-            DoubleSeq y = DoublesMath.subtract(vintages.column(i + gap), x);
-            Matrix yxCorr = PreTreatment.cleanNaN(y, x);
-            
-            DoubleSeqCursor.OnMutable cursor = rslt.row(i).cursor();
-            OlsTests test = OlsTestsComputer.of(yxCorr.column(0), yxCorr.column(1));
-            olsInformation(test, cursor);
+
+            DoubleSeq x = vintages.apply(i);
+            DoubleSeq y = DoublesMath.subtract(vintages.apply(i + gap), x);
+            int m = PreTreatment.cleanNaN(y, x, yc, xc);
+
+            if (!ols(DataBlock.of(yc, 0, m), DataBlock.of(xc, 0, m), rslt.apply(i))) {
+                ++skipped;
+            }
         }
-        return rslt;
+        sweep.end("efficiencyModel1", nr, n + gap, n, skipped);
     }
 
     /**
@@ -322,21 +847,54 @@ public class Utility {
      * @return
      */
     public Matrix efficiencyModel2(Matrix vintages, int gap) {
-        int n = vintages.getColumnsCount() - gap - 1;
-        FastMatrix rslt = FastMatrix.make(n, OLS + 2 * C);
+        return Cache.get(vintages, "efficiencyModel2", new Object[]{gap}, () -> {
+            int n = vintages.getColumnsCount() - gap - 1;
+            FastMatrix rslt = FastMatrix.make(n, OLS + 2 * C + STATUS);
+            efficiencyModel2(vintages::column, vintages.getRowsCount(), n, gap, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * rev(t)=a+b*rev(t-1)
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param gap Delay between the vintages used to compute the revisions
+     * (should be &ge 1)
+     * @param rslt Buffer that will contain the results (column-major,
+     * (ncols-gap-1) x 23, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int efficiencyModel2(double[] vintages, int nrows, int ncols, int gap, double[] rslt) {
+        int n = ncols - gap - 1;
+        if (n <= 0) {
+            return 0;
+        }
+        efficiencyModel2(columns(vintages, nrows, ncols), nrows, n, gap, rows(rslt, n, OLS + 2 * C + STATUS));
+        return n;
+    }
+
+    private void efficiencyModel2(IntFunction<DoubleSeq> vintages, int nr, int n, int gap, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] yc = new double[nr], xc = new double[nr];
         for (int i = 0; i < n; ++i) {
-            DoubleSeqCursor.OnMutable cursor = rslt.row(i).cursor();
+            DataBlock row = rslt.apply(i);
             try {
-                DoubleSeq y = DoublesMath.subtract(vintages.column(i + gap + 1), vintages.column(i + 1));
-                DoubleSeq x = DoublesMath.subtract(vintages.column(i + gap), vintages.column(i));
-                Matrix yxCorr = PreTreatment.cleanNaN(y, x);
-                
-                OlsTests test = OlsTestsComputer.of(yxCorr.column(0), yxCorr.column(1));
-                olsInformation(test, cursor);
+                DoubleSeq y = DoublesMath.subtract(vintages.apply(i + gap + 1), vintages.apply(i + 1));
+                DoubleSeq x = DoublesMath.subtract(vintages.apply(i + gap), vintages.apply(i));
+                int m = PreTreatment.cleanNaN(y, x, yc, xc);
+                if (!ols(DataBlock.of(yc, 0, m), DataBlock.of(xc, 0, m), row)) {
+                    ++skipped;
+                }
             } catch (Exception err) {
+                invalid(row, Feasibility.FAILED);
+                ++skipped;
             }
         }
-        return rslt;
+        sweep.end("efficiencyModel2", nr, n + gap + 1, n, skipped);
     }
 
     /**
@@ -347,21 +905,45 @@ public class Utility {
      * @return
      */
     public Matrix orthogonallyModel1(Matrix revs, int nrevs) {
-        int nr = revs.getRowsCount();
-        int nc = revs.getColumnsCount();
-        if (nrevs >= nc) {
-            return null;
+        return Cache.get(revs, "orthogonallyModel1", new Object[]{nrevs}, () -> {
+            int nc = revs.getColumnsCount();
+            if (nrevs >= nc) {
+                return null;
+            }
+            FastMatrix rslt = FastMatrix.make(nc - nrevs, OLS + C * (1 + nrevs) + STATUS);
+            orthogonallyModel1(revs::column, revs.getRowsCount(), nc, nrevs, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * rev(t)=a+b(1)*rev(t-1)+b(2)*rev(t-2)+...+b(nrevs)*rev(t-nrevs)
+     *
+     * @param revs Revisions (column-major, nrows x ncols)
+     * @param nrows Number of rows of the revisions
+     * @param ncols Number of columns of the revisions
+     * @param nrevs
+     * @param rslt Buffer that will contain the results (column-major,
+     * (ncols-nrevs) x (20+3*nrevs), the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int orthogonallyModel1(double[] revs, int nrows, int ncols, int nrevs, double[] rslt) {
+        if (nrevs >= ncols) {
+            return 0;
         }
-        FastMatrix rslt = FastMatrix.make(nc - nrevs, OLS + C * (1 + nrevs));
-        DoubleSeq[] x = new DoubleSeq[nrevs];
-        for (int i = nrevs; i < nc; ++i) {
-            double[] yx = new double[nr * (nrevs + 1)];
-            double[] y = revs.column(i).toArray();
-            System.arraycopy(y, 0, yx, 0, y.length);
+        int n = ncols - nrevs;
+        orthogonallyModel1(columns(revs, nrows, ncols), nrows, ncols, nrevs, rows(rslt, n, OLS + C * (1 + nrevs) + STATUS));
+        return n;
+    }
 
+    private void orthogonallyModel1(IntFunction<DoubleSeq> revs, int nr, int nc, int nrevs, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] yx = new double[nr * (nrevs + 1)];
+        for (int i = nrevs; i < nc; ++i) {
+            revs.apply(i).copyTo(yx, 0);
             for (int j = 0; j < nrevs; ++j) {
-                x[j] = revs.column(i - j - 1);
-                System.arraycopy(x[j].toArray(), 0, yx, (j + 1) * nr, x[j].toArray().length);
+                revs.apply(i - j - 1).copyTo(yx, (j + 1) * nr);
             }
 
             Matrix yxCorr = PreTreatment.cleanNaN(Matrix.of(yx, nr, nrevs + 1));
@@ -372,39 +954,72 @@ public class Utility {
                 xc[k] = yxCorr.column(k + 1);
             }
 
-            DoubleSeqCursor.OnMutable cursor = rslt.row(i - nrevs).cursor();
+            DataBlock row = rslt.apply(i - nrevs);
+            int status = Feasibility.regression(yc, xc);
+            if (status != Feasibility.OK) {
+                invalid(row, status);
+                ++skipped;
+                continue;
+            }
             try {
                 OlsTests test = OlsTestsComputer.of(yc, xc);
-                olsInformation(test, cursor);
+                if (test == null) {
+                    invalid(row, Feasibility.FAILED);
+                    ++skipped;
+                } else {
+                    olsInformation(test, row.cursor());
+                }
             } catch (Exception err) {
+                invalid(row, Feasibility.FAILED);
+                ++skipped;
             }
         }
-        return rslt;
+        sweep.end("orthogonallyModel1", nr, nc, nc - nrevs, skipped);
     }
-    
-    public Matrix orthogonallyModel2(Matrix revs, int k) {
-        int n = revs.getColumnsCount();
-        if (k >= n || k < 1) {
-            return null;
-        }
-        FastMatrix rslt = FastMatrix.make(n - k, OLS + C * 2);
 
-        for (int i = 0, j = 0; i < n; ++i) {
-            if (i > k - 1) {
+    public Matrix orthogonallyModel2(Matrix revs, int k) {
+        return Cache.get(revs, "orthogonallyModel2", new Object[]{k}, () -> {
+            int n = revs.getColumnsCount();
+            if (k >= n || k < 1) {
+                return null;
+            }
+            FastMatrix rslt = FastMatrix.make(n - k, OLS + C * 2 + STATUS);
+            orthogonallyModel2(revs::column, revs.getRowsCount(), n, k, rslt::row);
+            return rslt;
+        });
+    }
 
-                DoubleSeq y = revs.column(i);
-                DoubleSeq x = revs.column(i - k);
-                Matrix yxCorr = PreTreatment.cleanNaN(y, x);
+    /**
+     * rev(t)=a+b*rev(t-k)
+     *
+     * @param revs Revisions (column-major, nrows x ncols)
+     * @param nrows Number of rows of the revisions
+     * @param ncols Number of columns of the revisions
+     * @param k
+     * @param rslt Buffer that will contain the results (column-major,
+     * (ncols-k) x 23, the last column being the status)
+     * @return The number of rows written in rslt
+     */
+    public int orthogonallyModel2(double[] revs, int nrows, int ncols, int k, double[] rslt) {
+        if (k >= ncols || k < 1) {
+            return 0;
+        }
+        orthogonallyModel2(columns(revs, nrows, ncols), nrows, ncols, k, rows(rslt, ncols - k, OLS + C * 2 + STATUS));
+        return ncols - k;
+    }
 
-                DoubleSeqCursor.OnMutable cursor = rslt.row(j++).cursor();
-                try {
-                    OlsTests test = OlsTestsComputer.of(yxCorr.column(0), yxCorr.column(1));
-                    olsInformation(test, cursor);
-                } catch (Exception err) {
-                }
+    private void orthogonallyModel2(IntFunction<DoubleSeq> revs, int nr, int n, int k, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
+        int skipped = 0;
+        double[] yc = new double[nr], xc = new double[nr];
+        for (int i = k, j = 0; i < n; ++i) {
+            int m = PreTreatment.cleanNaN(revs.apply(i), revs.apply(i - k), yc, xc);
+            DataBlock row = rslt.apply(j++);
+            if (!ols(DataBlock.of(yc, 0, m), DataBlock.of(xc, 0, m), row)) {
+                ++skipped;
             }
         }
-        return rslt;
+        sweep.end("orthogonallyModel2", nr, n, n - k, skipped);
     }
 
     public double theil(RegressionBasedAnalysis<LocalDate> analysis, int k) {
@@ -414,7 +1029,7 @@ public class Utility {
         return analysis.getRevisions().get(k - 1).getTheilCoefficient();
     }
 
-    private static final int BIAS = 9;
+    private final int BIAS = BIAS_COLUMNS.size();
 
     /**
      * Bias computed on a matrix of revisions (each column corresponds to a
@@ -424,85 +1039,162 @@ public class Utility {
      * @return
      */
     public Matrix bias(Matrix revs) {
-        int n = revs.getColumnsCount();
-        FastMatrix rslt = FastMatrix.make(n, BIAS);
+        return Cache.get(revs, "bias", new Object[]{}, () -> {
+            int n = revs.getColumnsCount();
+            FastMatrix rslt = FastMatrix.make(n, BIAS);
+            bias(revs::column, n, rslt::row);
+            return rslt;
+        });
+    }
 
+    /**
+     * Bias computed on a matrix of revisions (each column corresponds to a
+     * revision)
+     *
+     * @param revs The revisions (column-major, nrows x ncols)
+     * @param nrows Number of rows of the revisions
+     * @param ncols Number of columns of the revisions
+     * @param rslt Buffer that will contain the results (column-major, ncols x
+     * 9)
+     * @return The number of rows written in rslt
+     */
+    public int bias(double[] revs, int nrows, int ncols, double[] rslt) {
+        bias(columns(revs, nrows, ncols), ncols, rows(rslt, ncols, BIAS));
+        return ncols;
+    }
+
+    private void bias(IntFunction<DoubleSeq> revs, int n, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
         for (int i = 0; i < n; ++i) {
-            DoubleSeq cur = revs.column(i);
-            DoubleSeqCursor.OnMutable cursor = rslt.row(i).cursor();
+            DoubleSeq cur = revs.apply(i);
+            DoubleSeqCursor.OnMutable cursor = rslt.apply(i).cursor();
             Bias bias = BiasComputer.of(cur);
             biasInformation(bias, cursor);
         }
-        return rslt;
+        sweep.end("bias", n == 0 ? 0 : revs.apply(0).length(), n, n, 0);
     }
 
-    private final int SN = 6;
+    private final int SN = SN_COLUMNS.size();
 
     public Matrix signalNoise(Matrix vintages, int gap) {
+        return Cache.get(vintages, "signalNoise", new Object[]{gap}, () -> {
+            if (gap < 1) {
+                throw new IllegalArgumentException("gap should be >= 1");
+            }
+            int n = vintages.getColumnsCount() - gap;
+            if (n <= 0) {
+                return null;
+            }
+            FastMatrix rslt = FastMatrix.make(n, SN);
+            signalNoise(vintages::column, n, gap, rslt::row);
+            return rslt;
+        });
+    }
+
+    /**
+     * Signal/noise tests computed on the columns of the vintages matrix
+     *
+     * @param vintages Vintages (column-major, nrows x ncols)
+     * @param nrows Number of rows of the vintages
+     * @param ncols Number of columns of the vintages
+     * @param gap Delay between the compared vintages (should be &ge 1)
+     * @param rslt Buffer that will contain the results (column-major,
+     * (ncols-gap) x 6)
+     * @return The number of rows written in rslt
+     */
+    public int signalNoise(double[] vintages, int nrows, int ncols, int gap, double[] rslt) {
         if (gap < 1) {
             throw new IllegalArgumentException("gap should be >= 1");
         }
-        int n = vintages.getColumnsCount() - gap;
+        int n = ncols - gap;
         if (n <= 0) {
-            return null;
+            return 0;
         }
-        FastMatrix rslt = FastMatrix.make(n, SN);
+        signalNoise(columns(vintages, nrows, ncols), n, gap, rows(rslt, n, SN));
+        return n;
+    }
 
+    private void signalNoise(IntFunction<DoubleSeq> vintages, int n, int gap, IntFunction<DataBlock> rslt) {
+        SweepEvent sweep = SweepEvent.start();
         for (int i = 0; i < n; ++i) {
-            DoubleSeq L = vintages.column(i + gap);
-            DoubleSeq P = vintages.column(i);
-            Matrix LPCorr = PreTreatment.cleanNaN(L, P);
-
-            DoubleSeqCursor.OnMutable cursor = rslt.row(i).cursor();
-            SignalNoise test = SignalNoiseComputer.of(LPCorr.column(1), LPCorr.column(0));
+            // missing values are skipped by the computer
+            DoubleSeqCursor.OnMutable cursor = rslt.apply(i).cursor();
+            SignalNoise test = SignalNoiseComputer.of(vintages.apply(i), vintages.apply(i + gap));
             signalNoiseInformation(test, cursor);
         }
+        sweep.end("signalNoise", vintages.apply(0).length(), n + gap, n, 0);
+    }
+
+    /**
+     * Columns of a column-major array (no copy)
+     *
+     * @param data
+     * @param nrows
+     * @param ncols
+     * @return
+     */
+    private IntFunction<DoubleSeq> columns(double[] data, int nrows, int ncols) {
+        if (data.length < nrows * ncols) {
+            throw new IllegalArgumentException("Invalid dimensions");
+        }
+        return j -> DataBlock.of(data, j * nrows, (j + 1) * nrows);
+    }
+
+    /**
+     * Row that couldn't be computed: the results are set to NaN and the
+     * status (see Feasibility) is put in the last column
+     *
+     * @param row
+     * @param status
+     */
+    private void invalid(DataBlock row, int status) {
+        row.set(Double.NaN);
+        row.set(row.length() - 1, status);
+    }
+
+    /**
+     * Rows of a column-major array (no copy). The array is reset to 0 on the
+     * given dimensions.
+     *
+     * @param rslt
+     * @param nrows
+     * @param ncols
+     * @return
+     */
+    private IntFunction<DataBlock> rows(double[] rslt, int nrows, int ncols) {
+        int len = nrows * ncols;
+        buffer(rslt, nrows, ncols);
+        return i -> DataBlock.of(rslt, i, i + len, nrows);
+    }
+
+    private double[] buffer(double[] rslt, int nrows, int ncols) {
+        int len = nrows * ncols;
+        if (rslt.length < len) {
+            throw new IllegalArgumentException("rslt should contain at least " + len + " elements");
+        }
+        Arrays.fill(rslt, 0, len, 0);
         return rslt;
     }
 
     public void olsInformation(OlsTests reg, DoubleSeqCursor.OnMutable cursor) {
-        if (reg == null) {
+        if (reg == null || reg.getCoefficients() == null || reg.getDiagnostics() == null) {
             return;
         }
         Coefficient[] c = reg.getCoefficients();
-        StatisticalTest jb = reg.getDiagnostics().getJarqueBera();
-        StatisticalTest bp = reg.getDiagnostics().getBreuschPagan();
-        StatisticalTest w = reg.getDiagnostics().getWhite();
-        StatisticalTest arch = reg.getDiagnostics().getArch();
-        cursor.setAndNext(reg.getN());
-        cursor.setAndNext(reg.getR2());
-        cursor.setAndNext(reg.getF());
+        OLS_HEADER.write(reg, cursor);
         for (int i = 0; i < c.length; ++i) {
             cursor.setAndNext(c[i].getEstimate());
             cursor.setAndNext(c[i].getStdev());
             cursor.setAndNext(c[i].getPvalue());
         }
-        cursor.setAndNext(reg.getDiagnostics().getSkewness());
-        cursor.setAndNext(reg.getDiagnostics().getKurtosis());
-        cursor.setAndNext(jb.getValue());
-        cursor.setAndNext(jb.getPvalue());
-        cursor.setAndNext(reg.getDiagnostics().getBpr2());
-        cursor.setAndNext(bp.getValue());
-        cursor.setAndNext(bp.getPvalue());
-        cursor.setAndNext(reg.getDiagnostics().getWr2());
-        cursor.setAndNext(w.getValue());
-        cursor.setAndNext(w.getPvalue());
-        cursor.setAndNext(reg.getDiagnostics().getArchr2());
-        cursor.setAndNext(arch.getValue());
-        cursor.setAndNext(arch.getPvalue());
+        OLS_DIAGNOSTICS.write(reg.getDiagnostics(), cursor);
     }
 
     public void acInformation(AutoCorrelationTests ac, DoubleSeqCursor.OnMutable cursor) {
         if (ac == null) {
             return;
         }
-        StatisticalTest bg = ac.getBreuschGodfrey();
-        StatisticalTest lb = ac.getLjungBox();
-        cursor.setAndNext(ac.getBgr2());
-        cursor.setAndNext(bg.getValue());
-        cursor.setAndNext(bg.getPvalue());
-        cursor.setAndNext(lb.getValue());
-        cursor.setAndNext(lb.getPvalue());
+        AC_COLUMNS.write(ac, cursor);
     }
 
     public double[] biasInformation(RegressionBasedAnalysis<LocalDate> analysis, int k) {
@@ -517,71 +1209,164 @@ public class Utility {
         if (bias == null) {
             return null;
         }
-        return new double[]{
-            bias.getN(),
-            bias.getMu(),
-            bias.getSigma(),
-            bias.getT(),
-            bias.getTPvalue(),
-            bias.getAr(),
-            bias.getAdjustedSigma(),
-            bias.getAdjustedT(),
-            bias.getAdjustedTPvalue()};
+        return BIAS_COLUMNS.values(bias);
+    }
+
+    /**
+     * All the revisions of an analysis, in a single matrix (one row by
+     * revision). See RegressionBasedTable for the description of the columns
+     *
+     * @param analysis
+     * @return
+     */
+    public Matrix table(RegressionBasedAnalysis<LocalDate> analysis) {
+        return RegressionBasedTable.of(analysis).matrix();
+    }
+
+    public Matrix table(RegressionBasedTable<LocalDate> table) {
+        return table.matrix();
+    }
+
+    /**
+     * Vintages of a columnar analysis (ISO format). Null for diagonal analysis
+     *
+     * @param table
+     * @return
+     */
+    public String[] vintages(RegressionBasedTable<LocalDate> table) {
+        String[] v = new String[table.size()];
+        for (int k = 0; k < v.length; ++k) {
+            LocalDate d = table.vintage(k);
+            v[k] = d == null ? null : d.format(DateTimeFormatter.ISO_DATE);
+        }
+        return v;
     }
 
     public void biasInformation(Bias bias, DoubleSeqCursor.OnMutable cursor) {
         if (bias == null) {
             return;
         }
-        cursor.setAndNext(bias.getN());
-        cursor.setAndNext(bias.getMu());
-        cursor.setAndNext(bias.getSigma());
-        cursor.setAndNext(bias.getT());
-        cursor.setAndNext(bias.getTPvalue());
-        cursor.setAndNext(bias.getAr());
-        cursor.setAndNext(bias.getAdjustedSigma());
-        cursor.setAndNext(bias.getAdjustedT());
-        cursor.setAndNext(bias.getAdjustedTPvalue());
+        BIAS_COLUMNS.write(bias, cursor);
     }
 
     private static void urInformation(UnitRoot ur, DoubleSeqCursor.OnMutable cursor) {
         if (ur == null) {
             return;
         }
-        UnitRoot.Test t = ur.getDickeyFuller();
-        cursor.setAndNext(t.getValue());
-        cursor.setAndNext(t.getStdev());
-        cursor.setAndNext(t.getStatistic());
-        cursor.setAndNext(t.getPvalue());
-        t = ur.getAugmentedDickeyFuller();
-        cursor.setAndNext(t.getValue());
-        cursor.setAndNext(t.getStdev());
-        cursor.setAndNext(t.getStatistic());
-        cursor.setAndNext(t.getPvalue());
-        t = ur.getDickeyFullerWithTrendAndIntercept();
-        cursor.setAndNext(t.getValue());
-        cursor.setAndNext(t.getStdev());
-        cursor.setAndNext(t.getStatistic());
-        cursor.setAndNext(t.getPvalue());
-        t = ur.getPhilipsPerron();
-        cursor.setAndNext(t.getValue());
-        cursor.setAndNext(t.getStdev());
-        cursor.setAndNext(t.getStatistic());
-        cursor.setAndNext(t.getPvalue());
+        UR_COLUMNS.write(ur, cursor);
     }
 
     private static void signalNoiseInformation(SignalNoise sn, DoubleSeqCursor.OnMutable cursor) {
         if (sn == null) {
             return;
         }
-        cursor.setAndNext(sn.getNewsR2());
-        cursor.setAndNext(sn.getNewsF());
-        cursor.setAndNext(sn.getNewsPvalue());
-        cursor.setAndNext(sn.getNoiseR2());
-        cursor.setAndNext(sn.getNoiseF());
-        cursor.setAndNext(sn.getNoisePvalue());
+        SN_COLUMNS.write(sn, cursor);
+    }
+
+    /**
+     * Columns written by olsInformation (b0 is the intercept)
+     */
+    private String[] olsFields(int ncoefs, boolean status) {
+        String[] fields = new String[OLS + C * ncoefs + (status ? STATUS : 0)];
+        int k = 0;
+        for (String h : OLS_HEADER.names()) {
+            fields[k++] = h;
+        }
+        for (int i = 0; i < ncoefs; ++i) {
+            fields[k++] = "b" + i;
+            fields[k++] = "b" + i + ".stdev";
+            fields[k++] = "b" + i + ".pvalue";
+        }
+        for (String d : OLS_DIAGNOSTICS.names()) {
+            fields[k++] = d;
+        }
+        if (status) {
+            fields[k] = "status";
+        }
+        return fields;
+    }
+
+    private String[] withStatus(String[] fields) {
+        String[] all = Arrays.copyOf(fields, fields.length + STATUS);
+        all[fields.length] = "status";
+        return all;
+    }
+
+    public String[] theilFields() {
+        return new String[]{"theil"};
+    }
+
+    /**
+     * Columns of slopeAndDrift. b1.pvalue is the p-value of the test b1=1
+     *
+     * @return
+     */
+    public String[] slopeAndDriftFields() {
+        return olsFields(2, true);
+    }
+
+    public String[] autoCorrelationFields() {
+        return withStatus(AC_COLUMNS.names());
+    }
+
+    public String[] slopeAndDriftWithAutoCorrelationFields() {
+        String[] ols = olsFields(2, false);
+        String[] fields = Arrays.copyOf(ols, ols.length + AC);
+        System.arraycopy(AC_COLUMNS.names(), 0, fields, ols.length, AC);
+        return withStatus(fields);
+    }
+
+    public String[] cointegrationFields() {
+        return withStatus(EG_COLUMNS.names());
+    }
+
+    /**
+     * Columns of vecm: trace tests then max tests, from lag-1 to 0
+     *
+     * @param lag
+     * @return
+     */
+    public String[] vecmFields(int lag) {
+        String[] fields = new String[JOHANSEN * lag];
+        for (int l = lag - 1, k = 0; l >= 0; --l, ++k) {
+            fields[k] = "trace" + l;
+            fields[lag + k] = "max" + l;
+        }
+        return withStatus(fields);
+    }
+
+    /**
+     * Columns of unitroot: value, stdev, statistic and pvalue of each test
+     * (Dickey-Fuller, augmented Dickey-Fuller, Dickey-Fuller with trend and
+     * intercept, Philips-Perron)
+     *
+     * @return
+     */
+    public String[] unitrootFields() {
+        return withStatus(UR_COLUMNS.names());
+    }
+
+    public String[] efficiencyModel1Fields() {
+        return olsFields(2, true);
+    }
+
+    public String[] efficiencyModel2Fields() {
+        return olsFields(2, true);
+    }
+
+    public String[] orthogonallyModel1Fields(int nrevs) {
+        return olsFields(1 + nrevs, true);
+    }
+
+    public String[] orthogonallyModel2Fields() {
+        return olsFields(2, true);
+    }
+
+    public String[] biasFields() {
+        return BIAS_COLUMNS.names();
+    }
+
+    public String[] signalNoiseFields() {
+        return SN_COLUMNS.names();
     }
-    
-    
-    
 }
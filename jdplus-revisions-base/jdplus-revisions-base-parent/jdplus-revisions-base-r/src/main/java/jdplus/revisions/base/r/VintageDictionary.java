@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.r;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import jdplus.revisions.base.api.timeseries.IsoDates;
+
+/**
+ * Immutable dictionary of the (sorted) vintages: dates, ISO labels and
+ * epoch days. For usual spans, the position of any day is read in a
+ * pre-computed table; otherwise, it is found by binary search.
+ *
+ * @author PALATEJ
+ */
+final class VintageDictionary {
+
+    private static final int MAX_SPAN = 1 << 16;
+
+    private final LocalDate[] dates;
+    private final String[] labels;
+    private final int[] days;
+    // floor[d-days[0]] = last position with days[pos] <= d
+    private final int[] floor;
+
+    static VintageDictionary of(List<LocalDate> vintages) {
+        return new VintageDictionary(vintages.toArray(LocalDate[]::new));
+    }
+
+    private VintageDictionary(LocalDate[] dates) {
+        int n = dates.length;
+        this.dates = dates;
+        this.labels = new String[n];
+        this.days = new int[n];
+        for (int i = 0; i < n; ++i) {
+            labels[i] = dates[i].format(DateTimeFormatter.ISO_DATE);
+            days[i] = (int) dates[i].toEpochDay();
+        }
+        if (n > 0 && days[n - 1] - days[0] < MAX_SPAN) {
+            floor = new int[days[n - 1] - days[0] + 1];
+            for (int i = 0, pos = 0; i < floor.length; ++i) {
+                while (pos + 1 < n && days[pos + 1] - days[0] <= i) {
+                    ++pos;
+                }
+                floor[i] = pos;
+            }
+        } else {
+            floor = null;
+        }
+    }
+
+    int size() {
+        return dates.length;
+    }
+
+    LocalDate date(int pos) {
+        return dates[pos];
+    }
+
+    String label(int pos) {
+        return labels[pos];
+    }
+
+    /**
+     * Copy of the labels
+     *
+     * @param start First position (included)
+     * @param end Last position (excluded)
+     * @return
+     */
+    String[] labels(int start, int end) {
+        return Arrays.copyOfRange(labels, start, end);
+    }
+
+    /**
+     * Position of the last vintage before or at the given day
+     *
+     * @param day Epoch day
+     * @return -1 if all the vintages are after the day
+     */
+    int floor(int day) {
+        int n = days.length;
+        if (n == 0 || day < days[0]) {
+            return -1;
+        }
+        if (day >= days[n - 1]) {
+            return n - 1;
+        }
+        if (floor != null) {
+            return floor[day - days[0]];
+        }
+        int pos = Arrays.binarySearch(days, day);
+        return pos >= 0 ? pos : -pos - 2;
+    }
+
+    /**
+     * Position of the first vintage after or at the given day
+     *
+     * @param day Epoch day
+     * @return size() if all the vintages are before the day
+     */
+    int ceiling(int day) {
+        return floor(day - 1) + 1;
+    }
+
+    /**
+     * Position of a given vintage
+     *
+     * @param label The vintage (ISO format)
+     * @return -1 if the vintage doesn't exist
+     */
+    int indexOf(String label) {
+        int day = IsoDates.epochDay(label);
+        int pos = floor(day);
+        return pos >= 0 && days[pos] == day ? pos : -1;
+    }
+}
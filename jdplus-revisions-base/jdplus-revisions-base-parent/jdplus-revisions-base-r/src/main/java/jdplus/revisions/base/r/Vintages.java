@@ -17,6 +17,8 @@
 package jdplus.revisions.base.r;
 
 import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.timeseries.IsoDates;
 import jdplus.revisions.base.api.timeseries.TsDataVintages;
 import jdplus.revisions.base.api.timeseries.TsMatrix;
 import jdplus.revisions.base.api.timeseries.TsObsVintages;
@@ -25,11 +27,11 @@ import jdplus.toolkit.base.api.timeseries.TsDomain;
 import jdplus.toolkit.base.api.timeseries.TsPeriod;
 import jdplus.toolkit.base.api.timeseries.TsUnit;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 import jdplus.toolkit.base.core.data.DataBlockIterator;
 import jdplus.toolkit.base.core.math.matrices.FastMatrix;
+import jdplus.revisions.base.core.monitoring.MaterializationEvent;
 import jdplus.revisions.base.core.parametric.Processor;
+import jdplus.revisions.base.core.parametric.RollingAnalysis;
 
 /**
  *
@@ -40,6 +42,11 @@ public class Vintages {
 
     TsDataVintages<LocalDate> core;
 
+    @lombok.Getter(lazy = true, value = lombok.AccessLevel.PRIVATE)
+    @lombok.EqualsAndHashCode.Exclude
+    @lombok.ToString.Exclude
+    VintageDictionary dictionary = VintageDictionary.of(core.getVintages());
+
     private TsUnit unit() {
         return core.getStart().getUnit();
     }
@@ -57,18 +64,9 @@ public class Vintages {
      * is unavailable, we take the previous one
      */
     public TsMatrix vtable(int firstRow, int lastRow, String firstVintage, String lastVintage) {
-        List<LocalDate> vintages = core.getVintages();
-        int nv = vintages.size();
-        int v0 = 0, v1 = nv - 1;
-
-        LocalDate fdate = firstVintage == null ? vintages.get(0) : LocalDate.parse(firstVintage, DateTimeFormatter.ISO_DATE);
-        LocalDate ldate = lastVintage == null ? vintages.get(v1) : LocalDate.parse(lastVintage, DateTimeFormatter.ISO_DATE);
-        while (v0 < nv && vintages.get(v0).isBefore(fdate)) {
-            ++v0;
-        }
-        while (v1 >= 0 && vintages.get(v1).isAfter(ldate)) {
-            --v1;
-        }
+        VintageDictionary dic = getDictionary();
+        int v0 = firstVintage == null ? 0 : dic.ceiling(IsoDates.epochDay(firstVintage));
+        int v1 = lastVintage == null ? dic.size() - 1 : dic.floor(IsoDates.epochDay(lastVintage));
 
         if (v1 < v0) {
             return null;
@@ -89,16 +87,17 @@ public class Vintages {
         if (r1 <= r0) {
             return null;
         }
+        MaterializationEvent event = MaterializationEvent.start();
         FastMatrix data = FastMatrix.make(r1 - r0, v1 - v0);
         // fill the matrix
         DataBlockIterator cols = data.columnsIterator();
         final int rstart = r0;
-        String[] ids = new String[data.getColumnsCount()];
         for (int v = v0; v < v1; ++v) {
-            LocalDate cdate = vintages.get(v);
-            ids[v - v0] = cdate.format(DateTimeFormatter.ISO_DATE);
+            LocalDate cdate = dic.date(v);
             cols.next().set(i -> core.data(i + rstart, cdate));
         }
+        event.end("vtable", r1 - r0, v1 - v0);
+        String[] ids = dic.labels(v0, v1);
         return new TsMatrix(domain.get(r0), data, ids);
     }
 
@@ -111,14 +110,69 @@ public class Vintages {
      * @return
      */
     public RegressionBasedAnalysis diagonalAnalysis(int first, int last) {
-        return Processor.diagonalAnalysis(core, first, last);
+        return Cache.get(core, "diagonalAnalysis", new Object[]{first, last}, () -> Processor.diagonalAnalysis(core, first, last));
     }
 
     public RegressionBasedAnalysis verticalAnalysis(String first, String last) {
-        LocalDate fdate = LocalDate.parse(first, DateTimeFormatter.ISO_DATE);
-        LocalDate ldate = LocalDate.parse(last, DateTimeFormatter.ISO_DATE);
+        LocalDate fdate = IsoDates.parse(first);
+        LocalDate ldate = IsoDates.parse(last);
+
+        return Cache.get(core, "verticalAnalysis", new Object[]{fdate, ldate}, () -> Processor.verticalAnalysis(core, fdate, ldate));
+    }
+
+    /**
+     * Same as diagonalAnalysis, in a columnar form
+     *
+     * @param first
+     * @param last
+     * @return
+     */
+    public RegressionBasedTable<LocalDate> diagonalTable(int first, int last) {
+        return Cache.get(core, "diagonalTable", new Object[]{first, last}, () -> Processor.diagonalTable(core, first, last));
+    }
+
+    /**
+     * Same as verticalAnalysis, in a columnar form
+     *
+     * @param first
+     * @param last
+     * @return
+     */
+    public RegressionBasedTable<LocalDate> verticalTable(String first, String last) {
+        LocalDate fdate = IsoDates.parse(first);
+        LocalDate ldate = IsoDates.parse(last);
 
-        return Processor.verticalAnalysis(core, fdate, ldate);
+        return Cache.get(core, "verticalTable", new Object[]{fdate, ldate}, () -> Processor.verticalTable(core, fdate, ldate));
+    }
+
+    /**
+     * Bias, Theil coefficient and slope/drift regression between the
+     * preliminary and the current estimates, on a rolling window of periods
+     *
+     * @param window Number of periods in the window
+     * @return The fields are given by RollingAnalysis
+     */
+    public TsMatrix rollingAnalysis(int window) {
+        return RollingAnalysis.of(core, window);
+    }
+
+    /**
+     * Triangle of the releases (periods x release number)
+     *
+     * @return
+     */
+    public TsMatrix releases() {
+        return core.releases();
+    }
+
+    /**
+     * Triangle of the revisions between successive releases (periods x
+     * revision number)
+     *
+     * @return
+     */
+    public TsMatrix revisions() {
+        return core.revisions();
     }
 
     public TsData preliminary() {
@@ -130,7 +184,7 @@ public class Vintages {
     }
 
     public TsData verticalVintage(String key) {
-        LocalDate pdate = LocalDate.parse(key, DateTimeFormatter.ISO_DATE);
+        LocalDate pdate = IsoDates.parse(key);
         return core.vintage(pdate);
     }
 
@@ -139,7 +193,7 @@ public class Vintages {
     }
 
     public double[] values(String referenceDate) {
-        LocalDate pdate = LocalDate.parse(referenceDate, DateTimeFormatter.ISO_DATE);
+        LocalDate pdate = IsoDates.parse(referenceDate);
         TsPeriod p = TsPeriod.of(unit(), pdate);
 
         TsDataVintages<LocalDate> v = core;
@@ -149,13 +203,18 @@ public class Vintages {
     }
 
     public String[] vintages() {
-        List<LocalDate> vintages = core.getVintages();
-        String[] v = new String[vintages.size()];
-        int pos = 0;
-        for (LocalDate d : vintages) {
-            v[pos++] = d.format(DateTimeFormatter.ISO_DATE);
-        }
-        return v;
+        VintageDictionary dic = getDictionary();
+        return dic.labels(0, dic.size());
+    }
+
+    /**
+     * Position of a given vintage
+     *
+     * @param vintage The vintage (ISO format)
+     * @return The 0-based position of the vintage or -1 if it doesn't exist
+     */
+    public int vintagePosition(String vintage) {
+        return getDictionary().indexOf(vintage);
     }
 
 }
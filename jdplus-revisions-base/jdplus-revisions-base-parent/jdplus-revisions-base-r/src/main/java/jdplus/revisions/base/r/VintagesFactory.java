@@ -16,22 +16,45 @@
  */
 package jdplus.revisions.base.r;
 
+import jdplus.revisions.base.api.timeseries.IsoDates;
 import jdplus.revisions.base.api.timeseries.TsDataVintages;
 import jdplus.toolkit.base.api.timeseries.TsPeriod;
 import jdplus.toolkit.base.api.timeseries.TsUnit;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
 
 /**
  * This class will simplify the use of the Java library. It could be avoided,
  * but the R code would be significantly more complex
  *
+ * The observations are passed to the underlying builder in the order of the
+ * calls, whatever the mix of single and bulk additions, so that repeated
+ * observations (same period and vintage) are resolved as if they had all
+ * been added one by one.
+ *
  * @author PALATEJ
  */
 public class VintagesFactory {
 
+    private static final int CHUNK = 8192;
+
+    /**
+     * Observations added in bulk. Dates are stored as epoch days
+     */
+    @lombok.AllArgsConstructor
+    private static class Block {
+
+        final int[] periods, vintages;
+        final double[] values;
+    }
+
     private final TsUnit unit;
     private final TsDataVintages.Builder<LocalDate> builder = TsDataVintages.<LocalDate>builder();
+    private final Queue<Block> blocks = new ConcurrentLinkedQueue<>();
 
      public VintagesFactory(int period) {
         this.unit = TsUnit.ofAnnualFrequency(period);
@@ -39,15 +62,80 @@ public class VintagesFactory {
 
     public void add(String periodDate, String registrationDate, double value) {
         synchronized (this) {
-            LocalDate pdate = LocalDate.parse(periodDate, DateTimeFormatter.ISO_DATE);
-            LocalDate rdate = LocalDate.parse(registrationDate, DateTimeFormatter.ISO_DATE);
+            // previous bulk additions come first
+            merge();
+            LocalDate pdate = IsoDates.parse(periodDate);
+            LocalDate rdate = IsoDates.parse(registrationDate);
             TsPeriod p = TsPeriod.of(unit, pdate);
             builder.add(p, rdate, value);
          }
     }
 
+    /**
+     * Adds a set of observations. The dates are parsed in parallel and the
+     * observations are merged in the vintages, in the order of the calls, by
+     * the next single add() or by build(). The arrays should not be modified
+     * afterwards.
+     *
+     * @param periodDates Periods (ISO format)
+     * @param registrationDates Vintages (ISO format)
+     * @param values Observations
+     */
+    public void add(String[] periodDates, String[] registrationDates, double[] values) {
+        int n = values.length;
+        if (periodDates.length != n || registrationDates.length != n) {
+            throw new IllegalArgumentException("Non compatible data");
+        }
+        int[] p = new int[n], r = new int[n];
+        IntStream.range(0, (n + CHUNK - 1) / CHUNK).parallel().forEach(c -> {
+            int i1 = Math.min(n, (c + 1) * CHUNK);
+            for (int i = c * CHUNK; i < i1; ++i) {
+                p[i] = IsoDates.epochDay(periodDates[i]);
+                r[i] = IsoDates.epochDay(registrationDates[i]);
+            }
+        });
+        blocks.add(new Block(p, r, values));
+    }
+
+    /**
+     * Adds a set of observations, with dates given as epoch days (number of
+     * days since 1970-01-01, as used for R Date objects). See add(String[],
+     * String[], double[]). The arrays should not be modified afterwards.
+     *
+     * @param periodDays Periods
+     * @param registrationDays Vintages
+     * @param values Observations
+     */
+    public void add(int[] periodDays, int[] registrationDays, double[] values) {
+        int n = values.length;
+        if (periodDays.length != n || registrationDays.length != n) {
+            throw new IllegalArgumentException("Non compatible data");
+        }
+        blocks.add(new Block(periodDays, registrationDays, values));
+    }
+
     public Vintages build() {
-        return new Vintages(builder.build());
+        synchronized (this) {
+            merge();
+            return new Vintages(builder.build());
+        }
+    }
+
+    private void merge() {
+        if (blocks.isEmpty()) {
+            return;
+        }
+        // Periods and vintages are heavily repeated
+        Map<Integer, TsPeriod> periods = new HashMap<>();
+        Map<Integer, LocalDate> vintages = new HashMap<>();
+        Block block;
+        while ((block = blocks.poll()) != null) {
+            for (int i = 0; i < block.values.length; ++i) {
+                TsPeriod p = periods.computeIfAbsent(block.periods[i], d -> TsPeriod.of(unit, LocalDate.ofEpochDay(d)));
+                LocalDate rdate = vintages.computeIfAbsent(block.vintages[i], LocalDate::ofEpochDay);
+                builder.add(p, rdate, block.values[i]);
+            }
+        }
     }
 
 }
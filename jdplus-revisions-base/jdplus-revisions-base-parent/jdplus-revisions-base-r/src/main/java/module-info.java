@@ -9,6 +9,7 @@ module jdplus.revisions.base.r {
     requires jdplus.toolkit.base.api;
     requires jdplus.revisions.base.core;
     requires jdplus.toolkit.base.core;
+    requires jdk.jfr;
 
     exports jdplus.revisions.base.r;
 }
\ No newline at end of file
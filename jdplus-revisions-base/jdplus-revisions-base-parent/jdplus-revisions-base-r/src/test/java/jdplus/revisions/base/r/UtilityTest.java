@@ -16,14 +16,24 @@
  */
 package jdplus.revisions.base.r;
 
+import jdplus.revisions.base.api.parametric.OlsTests;
 import jdplus.revisions.base.api.parametric.RegressionBasedAnalysis;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
 import jdplus.revisions.base.api.timeseries.TsDataVintages;
 import jdplus.revisions.base.api.timeseries.TsMatrix;
+import jdplus.revisions.base.api.parametric.UnitRoot;
+import jdplus.revisions.base.core.parametric.Feasibility;
+import jdplus.revisions.base.core.parametric.OlsTestsComputer;
+import jdplus.revisions.base.core.parametric.UnitRootTestsComputer;
 import jdplus.toolkit.base.api.timeseries.TsPeriod;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import jdplus.toolkit.base.api.math.matrices.Matrix;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
@@ -49,6 +59,20 @@ public class UtilityTest {
         double[] biasInformation = Utility.biasInformation(analysis, 10);
     }
 
+    @Test
+    public void testVerticalTable() {
+        TsDataVintages<LocalDate> v = random(480, 20);
+        String t0 = "2015-01-01", t1 = "2020-01-01";
+        Vintages V = new Vintages(v);
+        RegressionBasedAnalysis<LocalDate> analysis = V.verticalAnalysis(t0, t1);
+        RegressionBasedTable<LocalDate> table = V.verticalTable(t0, t1);
+        assertEquals(analysis.size(), table.size());
+        for (int k = 0; k < table.size(); ++k) {
+            assertEquals(analysis.revision(k).getVintage(), table.vintage(k));
+            assertEquals(analysis.revision(k).getTheilCoefficient(), table.get(k, RegressionBasedTable.THEIL));
+        }
+    }
+
     @Test
     public void testvtable() {
         TsDataVintages<LocalDate> v = random2(480, 20);
@@ -60,6 +84,19 @@ public class UtilityTest {
 //        System.out.println(vtable.getMatrix());
     }
 
+    @Test
+    public void testVintageLabels() {
+        Vintages V = new Vintages(random2(120, 10));
+        String[] all = V.vintages();
+        for (int i = 0; i < all.length; ++i) {
+            assertEquals(i, V.vintagePosition(all[i]));
+        }
+        assertEquals(-1, V.vintagePosition("1990-01-01"));
+        String t0 = "2005-01-10", t1 = "2008-06-30";
+        String[] sel = Arrays.stream(all).filter(s -> s.compareTo(t0) >= 0 && s.compareTo(t1) <= 0).toArray(String[]::new);
+        assertArrayEquals(sel, V.vtable(1, 120, t0, t1).getFields());
+    }
+
     @Test
     public void testDiagonal() {
         TsDataVintages<LocalDate> v = random(360, 20);
@@ -71,6 +108,125 @@ public class UtilityTest {
         double[] biasInformation = Utility.biasInformation(analysis, 10);
     }
 
+    @Test
+    public void testRawArrays() {
+        TsDataVintages<LocalDate> v = random2(120, 10);
+        Matrix m = new Vintages(v).vtable().getMatrix();
+        int nr = m.getRowsCount(), nc = m.getColumnsCount();
+        double[] data = m.toArray();
+        double[] rslt = new double[nc * 22];
+
+        double[] theil = Utility.theil(m, 1);
+        assertEquals(nc - 1, Utility.theil(data, nr, nc, 1, rslt));
+        assertArrayEquals(theil, Arrays.copyOf(rslt, nc - 1));
+
+        Matrix bias = Utility.bias(m);
+        assertEquals(nc, Utility.bias(data, nr, nc, rslt));
+        assertArrayEquals(bias.toArray(), Arrays.copyOf(rslt, nc * 9));
+
+        // pairwise writers, with a status column
+        int np = nc * (nc - 1) / 2;
+        double[] prslt = new double[np * 6];
+        Matrix ac = Utility.autoCorrelation(m, 1, 2);
+        assertEquals(np, Utility.autoCorrelation(data, nr, nc, 1, 2, prslt));
+        assertArrayEquals(ac.toArray(), Arrays.copyOf(prslt, np * 6));
+
+        Matrix eg = Utility.cointegration(m, 1);
+        assertEquals(np, Utility.cointegration(data, nr, nc, 1, prslt));
+        assertArrayEquals(eg.toArray(), Arrays.copyOf(prslt, np * 5));
+
+        Matrix sd = Utility.slopeAndDrift(m, 1);
+        double[] srslt = new double[(nc - 1) * 23];
+        assertEquals(nc - 1, Utility.slopeAndDrift(data, nr, nc, 1, srslt));
+        assertArrayEquals(sd.toArray(), srslt);
+    }
+
+    @Test
+    public void testParallelUnitRoot() {
+        Matrix m = new Vintages(random2(120, 10)).vtable().getMatrix();
+        assertArrayEquals(Utility.unitroot(m, 2).toArray(), Utility.unitroot(m, 2, true).toArray());
+    }
+
+    @Test
+    public void testFields() {
+        Matrix m = new Vintages(random2(120, 10)).vtable().getMatrix();
+        Matrix revs = Utility.bias(m);
+        assertEquals(Utility.biasFields().length, revs.getColumnsCount());
+        assertEquals(Utility.slopeAndDriftFields().length, Utility.slopeAndDrift(m, 1).getColumnsCount());
+        assertEquals(Utility.slopeAndDriftWithAutoCorrelationFields().length, Utility.slopeAndDriftWithAutoCorrelation(m, 1, 1, 2).getColumnsCount());
+        assertEquals(Utility.autoCorrelationFields().length, Utility.autoCorrelation(m, 1, 2).getColumnsCount());
+        assertEquals(Utility.cointegrationFields().length, Utility.cointegration(m, 1).getColumnsCount());
+        assertEquals(Utility.vecmFields(2).length, Utility.vecm(m, 2, "none").getColumnsCount());
+        assertEquals(Utility.unitrootFields().length, Utility.unitroot(m, 1).getColumnsCount());
+        assertEquals(Utility.efficiencyModel1Fields().length, Utility.efficiencyModel1(m, 1).getColumnsCount());
+        assertEquals(Utility.efficiencyModel2Fields().length, Utility.efficiencyModel2(m, 1).getColumnsCount());
+        assertEquals(Utility.orthogonallyModel1Fields(2).length, Utility.orthogonallyModel1(m, 2).getColumnsCount());
+        assertEquals(Utility.orthogonallyModel2Fields().length, Utility.orthogonallyModel2(m, 2).getColumnsCount());
+        assertEquals(Utility.signalNoiseFields().length, Utility.signalNoise(m, 1).getColumnsCount());
+    }
+
+    @Test
+    public void testFieldValues() {
+        int n = 80;
+        Random rnd = new Random(0);
+        double[] data = new double[n * 2];
+        for (int i = 0; i < n; ++i) {
+            data[i] = (i == 0 ? 0 : data[i - 1]) + rnd.nextGaussian();
+            data[n + i] = data[i] + .1 * rnd.nextGaussian();
+        }
+        Matrix m = Matrix.of(data, n, 2);
+
+        // v1 = a + b*v0
+        OlsTests ols = OlsTestsComputer.of(m.column(1), m.column(0));
+        Matrix sd = Utility.slopeAndDrift(m, 1);
+        List<String> fields = Arrays.asList(Utility.slopeAndDriftFields());
+        assertEquals(ols.getN(), sd.get(0, fields.indexOf("n")));
+        assertEquals(ols.getR2(), sd.get(0, fields.indexOf("R2")), 1e-12);
+        assertEquals(ols.getCoefficients()[1].getEstimate(), sd.get(0, fields.indexOf("b1")), 1e-12);
+        assertEquals(ols.getDiagnostics().getJarqueBera().getPvalue(), sd.get(0, fields.indexOf("jb.pvalue")), 1e-12);
+        assertEquals(ols.getDiagnostics().getArchr2(), sd.get(0, fields.indexOf("arch.R2")), 1e-12);
+        assertEquals(Feasibility.OK, sd.get(0, fields.indexOf("status")));
+
+        UnitRoot ur = UnitRootTestsComputer.of(m.column(0), 1);
+        Matrix urm = Utility.unitroot(m, 1);
+        fields = Arrays.asList(Utility.unitrootFields());
+        assertEquals(ur.getAugmentedDickeyFuller().getPvalue(), urm.get(0, fields.indexOf("adf.pvalue")), 1e-12);
+        assertEquals(ur.getPhilipsPerron().getStatistic(), urm.get(0, fields.indexOf("pp.statistic")), 1e-12);
+    }
+
+    @Test
+    public void testStatus() {
+        int n = 60;
+        Random rnd = new Random(0);
+        double[] data = new double[n * 4];
+        for (int i = 0; i < n; ++i) {
+            data[i] = rnd.nextGaussian();
+            data[n + i] = data[i] + rnd.nextGaussian();
+            data[2 * n + i] = i < n - 2 ? Double.NaN : rnd.nextGaussian();
+            data[3 * n + i] = 1;
+        }
+        Matrix m = Matrix.of(data, n, 4);
+        Matrix ac = Utility.autoCorrelation(m, 2, 2);
+        int status = ac.getColumnsCount() - 1;
+        // pairs (0,1), (0,2), (0,3), (1,2), (1,3), (2,3)
+        assertEquals(Feasibility.OK, ac.get(0, status));
+        assertTrue(Double.isFinite(ac.get(0, 0)));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, ac.get(1, status));
+        assertTrue(Double.isNaN(ac.get(1, 0)));
+        assertEquals(Feasibility.CONSTANT, ac.get(2, status));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, ac.get(5, status));
+
+        Matrix sd = Utility.slopeAndDrift(m, 1);
+        assertEquals(Feasibility.OK, sd.get(0, sd.getColumnsCount() - 1));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, sd.get(1, sd.getColumnsCount() - 1));
+        assertTrue(Double.isNaN(sd.get(1, 8)));
+
+        Matrix ur = Utility.unitroot(m, 1);
+        assertEquals(Feasibility.OK, ur.get(0, ur.getColumnsCount() - 1));
+        assertEquals(Feasibility.TOO_FEW_OBSERVATIONS, ur.get(2, ur.getColumnsCount() - 1));
+        assertEquals(Feasibility.CONSTANT, ur.get(3, ur.getColumnsCount() - 1));
+    }
+
     private static TsDataVintages<LocalDate> random(int N, int K) {
         Random rnd = new Random();
         TsDataVintages.Builder<LocalDate> builder = TsDataVintages.<LocalDate>builder();
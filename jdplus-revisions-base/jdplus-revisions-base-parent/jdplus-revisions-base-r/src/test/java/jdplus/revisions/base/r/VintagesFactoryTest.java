@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.base.r;
+
+import java.time.LocalDate;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class VintagesFactoryTest {
+
+    public VintagesFactoryTest() {
+    }
+
+    @Test
+    public void testBulkAdd() {
+        int N = 120, K = 10;
+        String[] periods = new String[N * K], vintages = new String[N * K];
+        int[] pdays = new int[N * K], vdays = new int[N * K];
+        double[] values = new double[N * K];
+        Random rnd = new Random(0);
+        VintagesFactory single = new VintagesFactory(12);
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0, j = 0; i < N; ++i) {
+            LocalDate p = start.plusMonths(i);
+            for (int k = 0; k < K; ++k, ++j) {
+                LocalDate v = p.plusMonths(k + 1);
+                periods[j] = p.toString();
+                vintages[j] = v.toString();
+                pdays[j] = (int) p.toEpochDay();
+                vdays[j] = (int) v.toEpochDay();
+                values[j] = rnd.nextDouble();
+                single.add(periods[j], vintages[j], values[j]);
+            }
+        }
+        VintagesFactory bulk = new VintagesFactory(12);
+        bulk.add(periods, vintages, values);
+        VintagesFactory days = new VintagesFactory(12);
+        days.add(pdays, vdays, values);
+
+        Vintages v0 = single.build(), v1 = bulk.build(), v2 = days.build();
+        assertArrayEquals(v0.vintages(), v1.vintages());
+        assertArrayEquals(v0.vintages(), v2.vintages());
+        assertArrayEquals(v0.vtable().getMatrix().toArray(), v1.vtable().getMatrix().toArray());
+        assertArrayEquals(v0.vtable().getMatrix().toArray(), v2.vtable().getMatrix().toArray());
+    }
+
+    @Test
+    public void testCallOrder() {
+        String[] p = {"2000-01-01", "2000-01-01"}, v = {"2000-02-01", "2000-03-01"};
+        int[] pdays = {(int) LocalDate.parse(p[0]).toEpochDay()}, vdays = {(int) LocalDate.parse(v[0]).toEpochDay()};
+        // the same observations, added one by one
+        VintagesFactory single = new VintagesFactory(12);
+        single.add(p[0], v[0], 1);
+        single.add(p[1], v[1], 1);
+        single.add(p[0], v[0], 2);
+        single.add(p[0], v[0], 3);
+        single.add(p[1], v[1], 4);
+
+        VintagesFactory mixed = new VintagesFactory(12);
+        mixed.add(p, v, new double[]{1, 1});
+        mixed.add(p[0], v[0], 2);
+        mixed.add(pdays, vdays, new double[]{3});
+        mixed.add(p[1], v[1], 4);
+
+        assertArrayEquals(single.build().vtable().getMatrix().toArray(), mixed.build().vtable().getMatrix().toArray());
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.time.LocalDate;
+import java.util.List;
+import jdplus.revisions.base.api.parametric.RegressionBasedTable;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.api.timeseries.TsMatrix;
+import jdplus.revisions.base.core.parametric.Processor;
+import jdplus.revisions.base.r.Utility;
+import jdplus.revisions.base.r.Vintages;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+
+/**
+ * Analyses available in the command line. The vertical and diagonal analyses
+ * are computed by Processor, the other ones by Utility, on the vintages
+ * table (or on the revisions between vintages separated by the gap). The
+ * columns of the Utility results are named by the corresponding "...Fields"
+ * functions of that class. An analysis that can't be computed on a short
+ * series gives an empty table.
+ *
+ * @author PALATEJ
+ */
+public enum Analysis {
+
+    VERTICAL {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            List<LocalDate> vintages = v.getVintages();
+            RegressionBasedTable<LocalDate> table = Processor.verticalTable(v, vintages.get(0), vintages.get(vintages.size() - 1));
+            return new Table(this, Utility.vintages(table), RegressionBasedTable.fields(), table.matrix());
+        }
+    },
+    DIAGONAL {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            int n = p.getReleases() > 0 ? p.getReleases() : v.maxRevisionsCount();
+            RegressionBasedTable<LocalDate> table = Processor.diagonalTable(v, 0, n - 1);
+            return new Table(this, null, RegressionBasedTable.fields(), table.matrix());
+        }
+    },
+    THEIL {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            double[] theil = Utility.theil(vtable(v), p.getGap());
+            return table(theil == null ? null : Matrix.of(theil, theil.length, 1), Utility.theilFields());
+        }
+    },
+    SLOPEANDDRIFT {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.slopeAndDrift(vtable(v), p.getGap()), Utility.slopeAndDriftFields());
+        }
+    },
+    EFFICIENCY1 {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.efficiencyModel1(vtable(v), p.getGap()), Utility.efficiencyModel1Fields());
+        }
+    },
+    EFFICIENCY2 {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.efficiencyModel2(vtable(v), p.getGap()), Utility.efficiencyModel2Fields());
+        }
+    },
+    ORTHOGONALITY1 {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.orthogonallyModel1(revisions(vtable(v), p.getGap()), p.getNrevs()), Utility.orthogonallyModel1Fields(p.getNrevs()));
+        }
+    },
+    ORTHOGONALITY2 {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.orthogonallyModel2(revisions(vtable(v), p.getGap()), p.getNrevs()), Utility.orthogonallyModel2Fields());
+        }
+    },
+    BIAS {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.bias(revisions(vtable(v), p.getGap())), Utility.biasFields());
+        }
+    },
+    SIGNALNOISE {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.signalNoise(vtable(v), p.getGap()), Utility.signalNoiseFields());
+        }
+    },
+    UNITROOT {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.unitroot(vtable(v), p.getAdfk()), Utility.unitrootFields());
+        }
+    },
+    AUTOCORRELATION {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.autoCorrelation(vtable(v), p.getNbg(), p.getNlb()), Utility.autoCorrelationFields());
+        }
+    },
+    COINTEGRATION {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.cointegration(vtable(v), p.getAdfk()), Utility.cointegrationFields());
+        }
+    },
+    VECM {
+        @Override
+        Table compute(TsDataVintages<LocalDate> v, Parameters p) {
+            return table(Utility.vecm(vtable(v), p.getLag(), p.getModel()), Utility.vecmFields(p.getLag()));
+        }
+    };
+
+    abstract Table compute(TsDataVintages<LocalDate> v, Parameters p);
+
+    /**
+     *
+     * @param m Results of Utility. Null when the analysis can't be computed
+     * (not enough vintages...)
+     * @param columns Names of the columns
+     * @return
+     */
+    Table table(Matrix m, String[] columns) {
+        if (m == null) {
+            return new Table(this, null, columns, Matrix.of(new double[0], 0, columns.length));
+        }
+        if (m.getColumnsCount() != columns.length) {
+            throw new IllegalStateException("unexpected number of columns in " + name());
+        }
+        return new Table(this, null, columns, m);
+    }
+
+    private static Matrix vtable(TsDataVintages<LocalDate> v) {
+        TsMatrix vt = new Vintages(v).vtable();
+        return vt.getMatrix();
+    }
+
+    /**
+     * Differences between the vintages separated by gap columns
+     */
+    private static Matrix revisions(Matrix vt, int gap) {
+        int nr = vt.getRowsCount(), nc = vt.getColumnsCount() - gap;
+        if (nc <= 0) {
+            return Matrix.of(new double[0], nr, 0);
+        }
+        double[] revs = new double[nr * nc];
+        for (int j = 0, k = 0; j < nc; ++j) {
+            for (int i = 0; i < nr; ++i, ++k) {
+                revs[k] = vt.get(i, j + gap) - vt.get(i, j);
+            }
+        }
+        return Matrix.of(revs, nr, nc);
+    }
+}
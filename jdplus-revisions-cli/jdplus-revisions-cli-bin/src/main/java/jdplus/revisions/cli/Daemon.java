@@ -0,0 +1,458 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.core.simulation.RevisionsGenerator;
+import jdplus.revisions.base.io.VintagesCsv;
+import jdplus.toolkit.base.api.timeseries.TsUnit;
+
+/**
+ * Long-running server that keeps the loaded series (and the JVM) warm.
+ *
+ * The protocol is line-oriented (UTF-8). Each request is a single line of
+ * tokens separated by blanks. Each response starts with a status line, "ok
+ * {n}" followed by n lines, or "error {message}". Requests:
+ * <ul>
+ * <li>ping</li>
+ * <li>load {name} {file} [frequency=12]: reads a csv file of vintages and
+ * keeps it under the given name. Answers "{periods} {vintages}"</li>
+ * <li>drop {name}</li>
+ * <li>list: names of the loaded series, with their number of periods and of
+ * vintages</li>
+ * <li>analyse {name or file} {analysis[,analysis...]} [gap=..] [adfk=..]
+ * [nbg=..] [nlb=..] [nrevs=..] [releases=..] [lag=..] [model=..]
+ * [frequency=..]: for each analysis,
+ * a line "table {analysis} {rows}" followed by the table in the csv format
+ * (header + rows)</li>
+ * <li>shutdown: stops the server</li>
+ * </ul>
+ * Files are resolved against the data root of the server; files outside of
+ * it can't be read. Files that are not loaded are read on each request.
+ *
+ * When the server is protected by a token, the first request of each
+ * connection must be "auth {token}". Otherwise, the connection is closed.
+ *
+ * The resources of the server are bounded: each open connection holds a
+ * thread (the connections beyond the limit are rejected with "error too many
+ * connections"), the number of requests executed simultaneously is limited,
+ * the connections that stay idle (or that are not authenticated) are closed
+ * after a timeout and the number of loaded series is limited.
+ *
+ * @author PALATEJ
+ */
+public final class Daemon {
+
+    /**
+     * Maximum time given to the sessions in progress when the server is
+     * stopped (in seconds)
+     */
+    private static final long GRACE = 60;
+
+    /**
+     * Maximum time given to a client to authenticate
+     */
+    private static final Duration AUTHENTICATION = Duration.ofSeconds(10);
+
+    private static final int DEFAULT_CONNECTIONS = 16, DEFAULT_SERIES = 64;
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    private final Path root;
+    private final int maxSeries;
+    private final long idleTimeout, authTimeout;
+    private final Map<String, TsDataVintages<LocalDate>> store = new ConcurrentHashMap<>();
+    private final Set<SocketChannel> clients = ConcurrentHashMap.newKeySet();
+    private final Semaphore connections, requests;
+    private final ExecutorService workers;
+    private final ScheduledThreadPoolExecutor timer;
+    private volatile ServerSocketChannel server;
+
+    /**
+     * Server with the default limits on the connections, on the loaded
+     * series and on the idle time
+     *
+     * @param threads Maximum number of requests processed simultaneously
+     * @param root Directory of the files that can be read by the requests
+     * @throws IOException
+     */
+    public Daemon(int threads, Path root) throws IOException {
+        this(root, threads, DEFAULT_CONNECTIONS, DEFAULT_SERIES, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     *
+     * @param root Directory of the files that can be read by the requests
+     * @param threads Maximum number of requests processed simultaneously
+     * @param connections Maximum number of open connections
+     * @param series Maximum number of loaded series
+     * @param idleTimeout Connections without request during that time are
+     * closed
+     * @throws IOException
+     */
+    public Daemon(Path root, int threads, int connections, int series, Duration idleTimeout) throws IOException {
+        if (threads <= 0 || connections <= 0 || series < 0 || idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("invalid limits");
+        }
+        this.root = root.toRealPath();
+        this.maxSeries = series;
+        this.idleTimeout = idleTimeout.toMillis();
+        this.authTimeout = Math.min(this.idleTimeout, AUTHENTICATION.toMillis());
+        this.connections = new Semaphore(connections);
+        this.requests = new Semaphore(threads);
+        // one thread by open connection (at most)
+        this.workers = Executors.newFixedThreadPool(connections, r -> {
+            Thread thread = new Thread(r, "revisions-daemon");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "revisions-daemon-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs all the analyses on synthetic series, so that the main code paths
+     * are loaded and compiled before the first request
+     *
+     * @param count Number of series
+     */
+    public void warmup(int count) {
+        if (count <= 0) {
+            return;
+        }
+        RevisionsGenerator generator = RevisionsGenerator.builder().build();
+        Parameters parameters = Parameters.builder().build();
+        for (int i = 0; i < count; ++i) {
+            TsDataVintages<LocalDate> v = generator.generate(i);
+            for (Analysis analysis : Analysis.values()) {
+                try {
+                    analysis.compute(v, parameters);
+                } catch (RuntimeException err) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Same as serve(channel, null)
+     *
+     * @param channel
+     * @throws IOException
+     */
+    public void serve(ServerSocketChannel channel) throws IOException {
+        serve(channel, null);
+    }
+
+    /**
+     * Accepts connections until the shutdown request (or the closing of the
+     * channel). Each connection is served by a worker thread; a connection
+     * may send several requests. The connections beyond the limit are
+     * rejected. When the server is stopped, the requests in progress are
+     * completed before this method returns
+     *
+     * @param channel Bound server channel (Unix domain socket or loopback
+     * address)
+     * @param token Token expected at the start of each connection (null if
+     * the connections are not authenticated)
+     * @throws IOException
+     */
+    public void serve(ServerSocketChannel channel, String token) throws IOException {
+        server = channel;
+        try {
+            while (channel.isOpen()) {
+                SocketChannel client;
+                try {
+                    client = channel.accept();
+                } catch (ClosedChannelException ex) {
+                    // also thrown when the channel is closed during accept
+                    break;
+                }
+                if (!connections.tryAcquire()) {
+                    reject(client);
+                    continue;
+                }
+                workers.execute(() -> {
+                    try {
+                        session(client, token);
+                    } finally {
+                        connections.release();
+                    }
+                });
+            }
+        } finally {
+            stop();
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(GRACE, TimeUnit.SECONDS)) {
+                    workers.shutdownNow();
+                }
+            } catch (InterruptedException ex) {
+                workers.shutdownNow();
+                Thread.currentThread().interrupt();
+            } finally {
+                timer.shutdownNow();
+            }
+        }
+    }
+
+    private static void reject(SocketChannel client) {
+        try (client) {
+            client.write(StandardCharsets.UTF_8.encode("error too many connections\n"));
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Stops the server (same as the shutdown request). The idle connections
+     * are closed; the requests in progress are completed
+     *
+     * @throws IOException
+     */
+    public void stop() throws IOException {
+        ServerSocketChannel cur = server;
+        if (cur != null) {
+            cur.close();
+        }
+        for (SocketChannel client : clients) {
+            try {
+                // wakes up the sessions waiting for a request
+                client.shutdownInput();
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    private void session(SocketChannel client, String token) {
+        clients.add(client);
+        try (client;
+                BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+            if (token != null && !authenticate(readLine(client, in, authTimeout), token)) {
+                out.write("error unauthorized\n");
+                out.flush();
+                return;
+            }
+            String line;
+            // the server is checked after the registration of the client (see stop)
+            while (server.isOpen() && (line = readLine(client, in, idleTimeout)) != null) {
+                boolean more;
+                requests.acquireUninterruptibly();
+                try {
+                    more = execute(line, out);
+                } finally {
+                    requests.release();
+                }
+                out.flush();
+                if (!more) {
+                    stop();
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            // connection closed by the client
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    /**
+     * Reads the next request. The connection is closed if nothing is received
+     * before the timeout (the pending read then fails)
+     */
+    private String readLine(SocketChannel client, BufferedReader in, long timeout) throws IOException {
+        ScheduledFuture<?> deadline = timer.schedule(() -> {
+            try {
+                client.close();
+            } catch (IOException ex) {
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        try {
+            return in.readLine();
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    private static boolean authenticate(String line, String token) {
+        if (line == null) {
+            return false;
+        }
+        String[] tokens = line.trim().split("\\s+");
+        return tokens.length == 2 && tokens[0].equals("auth")
+                && MessageDigest.isEqual(tokens[1].getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Executes a request
+     *
+     * @param request
+     * @param out Receives the response
+     * @return false if the server must be stopped (shutdown request)
+     * @throws IOException
+     */
+    public boolean execute(String request, Writer out) throws IOException {
+        String[] tokens = request.trim().split("\\s+");
+        try {
+            switch (tokens[0].toLowerCase(Locale.ROOT)) {
+                case "ping" ->
+                    ok(out, 0, "");
+                case "load" -> {
+                    check(tokens, 3);
+                    checkCapacity(tokens[1]);
+                    TsDataVintages<LocalDate> v = read(tokens[2], options(tokens, 3));
+                    synchronized (store) {
+                        checkCapacity(tokens[1]);
+                        store.put(tokens[1], v);
+                    }
+                    ok(out, 1, v.length() + " " + v.getVintages().size() + "\n");
+                }
+                case "drop" -> {
+                    check(tokens, 2);
+                    ok(out, 0, "");
+                    store.remove(tokens[1]);
+                }
+                case "list" -> {
+                    StringBuilder builder = new StringBuilder();
+                    Map<String, TsDataVintages<LocalDate>> all = new TreeMap<>(store);
+                    all.forEach((name, v) -> builder.append(name).append(' ').append(v.length()).append(' ').append(v.getVintages().size()).append('\n'));
+                    ok(out, all.size(), builder.toString());
+                }
+                case "analyse" -> {
+                    check(tokens, 3);
+                    analyse(tokens, out);
+                }
+                case "shutdown" -> {
+                    ok(out, 0, "");
+                    return false;
+                }
+                default ->
+                    throw new IllegalArgumentException("unknown request " + tokens[0]);
+            }
+        } catch (IOException | RuntimeException err) {
+            String msg = err.getMessage();
+            out.write("error " + (msg == null ? err.getClass().getSimpleName() : msg.replace('\n', ' ')) + "\n");
+        }
+        return true;
+    }
+
+    private void checkCapacity(String name) {
+        if (store.size() >= maxSeries && !store.containsKey(name)) {
+            throw new IllegalArgumentException("too many loaded series (" + maxSeries + "), drop one first");
+        }
+    }
+
+    private void analyse(String[] tokens, Writer out) throws IOException {
+        Map<String, String> options = options(tokens, 3);
+        TsDataVintages<LocalDate> v = store.get(tokens[1]);
+        if (v == null) {
+            v = read(tokens[1], options);
+        }
+        List<Analysis> analyses = new ArrayList<>();
+        for (String name : tokens[2].split(",")) {
+            analyses.add(Analysis.valueOf(name.toUpperCase(Locale.ROOT)));
+        }
+        Parameters parameters = Parameters.builder()
+                .gap(option(options, "gap", 1))
+                .adfk(option(options, "adfk", 1))
+                .nbg(option(options, "nbg", 1))
+                .nlb(option(options, "nlb", 2))
+                .nrevs(option(options, "nrevs", 1))
+                .releases(option(options, "releases", 0))
+                .lag(option(options, "lag", 2))
+                .model(options.getOrDefault("model", "none"))
+                .build();
+        List<Table> tables = RevisionsCommand.compute(v, analyses, parameters);
+        StringWriter payload = new StringWriter();
+        int n = 0;
+        for (Table table : tables) {
+            int nrows = table.getData().getRowsCount();
+            payload.write("table " + table.getAnalysis().name().toLowerCase(Locale.ROOT) + " " + nrows + "\n");
+            Format.csv(table, payload);
+            n += nrows + 2;
+        }
+        ok(out, n, payload.toString());
+    }
+
+    private TsDataVintages<LocalDate> read(String file, Map<String, String> options) throws IOException {
+        Path path = root.resolve(file).normalize();
+        if (!path.startsWith(root) || !Files.isRegularFile(path) || !path.toRealPath().startsWith(root)) {
+            throw new IllegalArgumentException("unknown series " + file);
+        }
+        return VintagesCsv.read(path, TsUnit.ofAnnualFrequency(option(options, "frequency", 12)));
+    }
+
+    private static void ok(Writer out, int n, String payload) throws IOException {
+        out.write("ok " + n + "\n");
+        out.write(payload);
+    }
+
+    private static void check(String[] tokens, int n) {
+        if (tokens.length < n) {
+            throw new IllegalArgumentException("missing arguments");
+        }
+    }
+
+    private static Map<String, String> options(String[] tokens, int start) {
+        Map<String, String> options = new TreeMap<>();
+        for (int i = start; i < tokens.length; ++i) {
+            int pos = tokens[i].indexOf('=');
+            if (pos <= 0) {
+                throw new IllegalArgumentException("invalid option " + tokens[i]);
+            }
+            options.put(tokens[i].substring(0, pos).toLowerCase(Locale.ROOT), tokens[i].substring(pos + 1));
+        }
+        return options;
+    }
+
+    private static int option(Map<String, String> options, String key, int defaultValue) {
+        String val = options.get(key);
+        return val == null ? defaultValue : Integer.parseInt(val);
+    }
+}
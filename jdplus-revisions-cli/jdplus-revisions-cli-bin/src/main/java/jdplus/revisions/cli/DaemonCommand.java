@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import picocli.CommandLine;
+
+/**
+ * Daemon mode (see Daemon for the protocol).
+ *
+ * The Unix domain socket is only accessible to its owner. The loopback port
+ * is accessible to all the local users, so that its connections are
+ * authenticated by a random token, written in an owner-only file.
+ *
+ * @author PALATEJ
+ */
+@CommandLine.Command(name = "daemon",
+        description = "Serves analysis requests on a Unix domain socket or on a loopback port, with a warm JVM.",
+        sortOptions = false)
+public final class DaemonCommand implements Callable<Integer> {
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
+    @CommandLine.Option(names = {"-s", "--socket"},
+            description = "Path of the Unix domain socket")
+    Path socket;
+
+    @CommandLine.Option(names = "--port",
+            description = "Loopback port")
+    Integer port;
+
+    @CommandLine.Option(names = "--token-file",
+            description = "File receiving the access token of the loopback port (created by the daemon)")
+    Path tokenFile;
+
+    @CommandLine.Option(names = {"-d", "--data"}, defaultValue = ".",
+            description = "Directory of the files that can be read by the requests (default: current directory)")
+    Path data;
+
+    @CommandLine.Option(names = {"-t", "--threads"}, defaultValue = "0",
+            description = "Number of requests processed simultaneously (default: number of processors)")
+    int threads;
+
+    @CommandLine.Option(names = "--connections", defaultValue = "16",
+            description = "Maximum number of open connections; the other ones are rejected (default: ${DEFAULT-VALUE})")
+    int connections;
+
+    @CommandLine.Option(names = "--max-series", defaultValue = "64",
+            description = "Maximum number of loaded series (default: ${DEFAULT-VALUE})")
+    int series;
+
+    @CommandLine.Option(names = "--idle-timeout", defaultValue = "300",
+            description = "Connections without request during that time are closed, in seconds (default: ${DEFAULT-VALUE})")
+    long idleTimeout;
+
+    @CommandLine.Option(names = "--warmup", defaultValue = "20",
+            description = "Number of synthetic series analysed at startup (default: ${DEFAULT-VALUE})")
+    int warmup;
+
+    @CommandLine.Option(names = {"-h", "--help"}, usageHelp = true,
+            description = "Shows this help message and exits")
+    boolean help;
+
+    @Override
+    public Integer call() throws IOException {
+        if ((socket == null) == (port == null)) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Either --socket or --port must be specified");
+        }
+        if ((port != null) != (tokenFile != null)) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "--token-file must be specified with --port (and only with it)");
+        }
+        PrintWriter err = spec.commandLine().getErr();
+        Daemon daemon = new Daemon(data, threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                connections, series, Duration.ofSeconds(idleTimeout));
+        daemon.warmup(warmup);
+        if (socket != null) {
+            Path path = socket.toAbsolutePath();
+            Object created = null;
+            try (ServerSocketChannel channel = bind(path)) {
+                created = fileKey(path);
+                err.println("listening on " + path);
+                err.flush();
+                daemon.serve(channel);
+            } finally {
+                // only the socket created by this process is removed
+                if (created != null && created.equals(fileKey(path))) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } else {
+            byte[] bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+            String token = HexFormat.of().formatHex(bytes);
+            Object created = null;
+            try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+                channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                writeToken(tokenFile, token);
+                created = fileKey(tokenFile);
+                err.println("listening on " + channel.getLocalAddress());
+                err.flush();
+                daemon.serve(channel, token);
+            } finally {
+                if (created != null && created.equals(fileKey(tokenFile))) {
+                    Files.deleteIfExists(tokenFile);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Binds a Unix domain socket that is only accessible to its owner. An
+     * existing socket that is not used any more is replaced; other existing
+     * files are never removed
+     */
+    private static ServerSocketChannel bind(Path socket) throws IOException {
+        if (Files.exists(socket, LinkOption.NOFOLLOW_LINKS)) {
+            if (!isSocket(socket)) {
+                throw new FileAlreadyExistsException(socket.toString(), null, "not a socket");
+            }
+            if (isAlive(socket)) {
+                throw new FileAlreadyExistsException(socket.toString(), null, "used by another server");
+            }
+            Files.delete(socket);
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            if (!socket.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                channel.bind(UnixDomainSocketAddress.of(socket));
+                return channel;
+            }
+            // the socket is created in a private directory, restricted and then moved,
+            // so that it is never accessible to the other users
+            Path dir = Files.createTempDirectory(socket.getParent(), ".rv",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            Path tmp = dir.resolve("s");
+            try {
+                channel.bind(UnixDomainSocketAddress.of(tmp));
+                Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-------"));
+                Files.move(tmp, socket);
+            } finally {
+                Files.deleteIfExists(tmp);
+                Files.delete(dir);
+            }
+            return channel;
+        } catch (IOException | RuntimeException err) {
+            channel.close();
+            throw err;
+        }
+    }
+
+    private static boolean isSocket(Path path) throws IOException {
+        try {
+            int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+            return (mode & 0170000) == 0140000;
+        } catch (UnsupportedOperationException | IllegalArgumentException ex) {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther();
+        }
+    }
+
+    private static boolean isAlive(Path socket) {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an owner-only file with the token. An existing file is never
+     * overwritten
+     */
+    private static void writeToken(Path file, String token) throws IOException {
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+        Files.writeString(file, token + "\n", StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Identifies a file, to check that it has not been replaced (null if the
+     * file doesn't exist)
+     */
+    private static Object fileKey(Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return Objects.requireNonNullElse(attrs.fileKey(), attrs.creationTime());
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
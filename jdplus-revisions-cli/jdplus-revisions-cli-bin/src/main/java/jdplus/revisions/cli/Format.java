@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+
+/**
+ * Output formats. Each table is written in a separate file, named
+ * {series}-{analysis}.{extension}
+ *
+ * @author PALATEJ
+ */
+public enum Format {
+
+    /**
+     * Header with the names of the columns, then one line by row (label
+     * first). Missing values are empty
+     */
+    CSV("csv") {
+        @Override
+        void write(Table table, Path file) throws IOException {
+            try (Writer out = Files.newBufferedWriter(file)) {
+                csv(table, out);
+            }
+        }
+    },
+    /**
+     * Big-endian: magic number (int), version (int), number of rows (int),
+     * number of columns (int), names of the columns (modified UTF-8), labels
+     * of the rows (modified UTF-8), data (doubles, column-major)
+     */
+    BINARY("bin") {
+        @Override
+        void write(Table table, Path file) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                Matrix m = table.getData();
+                int nr = m.getRowsCount(), nc = m.getColumnsCount();
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(nr);
+                out.writeInt(nc);
+                for (String column : table.getColumns()) {
+                    out.writeUTF(column);
+                }
+                for (int i = 0; i < nr; ++i) {
+                    out.writeUTF(table.row(i));
+                }
+                for (int j = 0; j < nc; ++j) {
+                    for (int i = 0; i < nr; ++i) {
+                        out.writeDouble(m.get(i, j));
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * "RVTB"
+     */
+    public static final int MAGIC = 0x52565442, VERSION = 1;
+
+    private final String extension;
+
+    private Format(String extension) {
+        this.extension = extension;
+    }
+
+    abstract void write(Table table, Path file) throws IOException;
+
+    /**
+     * Writes a table in the csv format (1 + number of rows lines)
+     *
+     * @param table
+     * @param out
+     * @throws IOException
+     */
+    static void csv(Table table, Writer out) throws IOException {
+        out.write("row");
+        for (String column : table.getColumns()) {
+            out.write(',');
+            out.write(column);
+        }
+        out.write('\n');
+        Matrix m = table.getData();
+        for (int i = 0; i < m.getRowsCount(); ++i) {
+            out.write(table.row(i));
+            for (int j = 0; j < m.getColumnsCount(); ++j) {
+                out.write(',');
+                double val = m.get(i, j);
+                if (Double.isFinite(val)) {
+                    out.write(Double.toString(val));
+                }
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Writes the results of a series
+     *
+     * @param name Name of the series
+     * @param tables Results of the different analyses
+     * @param output Output directory
+     * @throws IOException
+     */
+    public void write(String name, List<Table> tables, Path output) throws IOException {
+        for (Table table : tables) {
+            String analysis = table.getAnalysis().name().toLowerCase(Locale.ROOT);
+            write(table, output.resolve(name + "-" + analysis + "." + extension));
+        }
+    }
+}
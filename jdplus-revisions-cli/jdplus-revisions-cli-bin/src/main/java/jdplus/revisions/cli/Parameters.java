@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+/**
+ * Parameters of the analyses
+ *
+ * @author PALATEJ
+ */
+@lombok.Value
+@lombok.Builder
+public class Parameters {
+
+    /**
+     * Delay between the compared vintages
+     */
+    int gap;
+
+    /**
+     * Number of lags in the augmented Dickey-Fuller tests
+     */
+    int adfk;
+
+    /**
+     * Breusch-Godfrey and Ljung-Box lags
+     */
+    int nbg, nlb;
+
+    /**
+     * Number of previous revisions in the orthogonality tests
+     */
+    int nrevs;
+
+    /**
+     * Number of releases in the diagonal analysis (0 for all of them)
+     */
+    int releases;
+
+    /**
+     * Lag and deterministic terms (none, cnt or trend) of the Johansen test
+     * in the VECM analysis
+     */
+    int lag;
+    String model;
+
+    public static Builder builder() {
+        return new Builder()
+                .gap(1)
+                .adfk(1)
+                .nbg(1)
+                .nlb(2)
+                .nrevs(1)
+                .releases(0)
+                .lag(2)
+                .model("none");
+    }
+}
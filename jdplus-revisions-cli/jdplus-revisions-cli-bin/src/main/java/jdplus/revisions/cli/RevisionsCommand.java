@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.io.Pipeline;
+import picocli.CommandLine;
+
+/**
+ * Batch analysis of csv files of vintages (see VintagesCsv)
+ *
+ * @author PALATEJ
+ */
+@CommandLine.Command(name = "jdplus-revisions",
+        description = "Runs revision analyses on csv files of vintages (period,vintage,value), in parallel.",
+        sortOptions = false,
+        subcommands = DaemonCommand.class)
+public final class RevisionsCommand implements Callable<Integer> {
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new RevisionsCommand())
+                .setCaseInsensitiveEnumValuesAllowed(true)
+                .execute(args));
+    }
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
+    @CommandLine.Parameters(index = "0", paramLabel = "INPUT", arity = "0..1",
+            description = "Csv file or directory of csv files")
+    Path input;
+
+    @CommandLine.Option(names = {"-o", "--output"}, defaultValue = "revisions",
+            description = "Output directory (default: ${DEFAULT-VALUE})")
+    Path output;
+
+    @CommandLine.Option(names = {"-a", "--analysis"}, split = ",", defaultValue = "vertical",
+            description = "Analyses, separated by commas: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+    List<Analysis> analyses;
+
+    @CommandLine.Option(names = {"-f", "--format"}, defaultValue = "csv",
+            description = "Output format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+    Format format;
+
+    @CommandLine.Option(names = {"-t", "--threads"}, defaultValue = "0",
+            description = "Number of threads used by the analyses (default: number of processors)")
+    int threads;
+
+    @CommandLine.Option(names = {"-m", "--memory"}, defaultValue = "0",
+            description = "Approximate memory budget in MB, only used to size the queues between the stages of the pipeline "
+            + "from the size of the input files; it doesn't limit the heap (default: a quarter of the maximum heap)")
+    long memory;
+
+    @CommandLine.Option(names = {"-p", "--progress"},
+            description = "Reports the progress and the activity of the different stages")
+    boolean progress;
+
+    @CommandLine.Option(names = "--frequency", defaultValue = "12",
+            description = "Annual frequency of the series (default: ${DEFAULT-VALUE})")
+    int frequency;
+
+    @CommandLine.Option(names = "--gap", defaultValue = "1",
+            description = "Delay between the compared vintages (default: ${DEFAULT-VALUE})")
+    int gap;
+
+    @CommandLine.Option(names = "--adfk", defaultValue = "1",
+            description = "Lags of the augmented Dickey-Fuller tests (default: ${DEFAULT-VALUE})")
+    int adfk;
+
+    @CommandLine.Option(names = "--nbg", defaultValue = "1",
+            description = "Lags of the Breusch-Godfrey test (default: ${DEFAULT-VALUE})")
+    int nbg;
+
+    @CommandLine.Option(names = "--nlb", defaultValue = "2",
+            description = "Lags of the Ljung-Box test (default: ${DEFAULT-VALUE})")
+    int nlb;
+
+    @CommandLine.Option(names = "--nrevs", defaultValue = "1",
+            description = "Previous revisions in the orthogonality tests (default: ${DEFAULT-VALUE})")
+    int nrevs;
+
+    @CommandLine.Option(names = "--releases", defaultValue = "0",
+            description = "Releases in the diagonal analysis (default: all)")
+    int releases;
+
+    @CommandLine.Option(names = "--lag", defaultValue = "2",
+            description = "Lag of the Johansen test in the VECM analysis (default: ${DEFAULT-VALUE})")
+    int lag;
+
+    @CommandLine.Option(names = "--model", defaultValue = "none",
+            description = "Deterministic terms of the VECM analysis: none, cnt or trend (default: ${DEFAULT-VALUE})")
+    String model;
+
+    @CommandLine.Option(names = {"-h", "--help"}, usageHelp = true,
+            description = "Shows this help message and exits")
+    boolean help;
+
+    /**
+     * Ratio between the memory used by a series in flight (raw content and
+     * vintages) and the size of its csv file. Rough estimate
+     */
+    private static final int EXPANSION = 10;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        if (input == null) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Missing required parameter: INPUT");
+        }
+        PrintWriter err = spec.commandLine().getErr();
+        int nthreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        Parameters parameters = Parameters.builder()
+                .gap(gap)
+                .adfk(adfk)
+                .nbg(nbg)
+                .nlb(nlb)
+                .nrevs(nrevs)
+                .releases(releases)
+                .lag(lag)
+                .model(model)
+                .build();
+        List<Analysis> selection = new ArrayList<>(new LinkedHashSet<>(analyses));
+        Pipeline<List<Table>> pipeline = Pipeline.<List<Table>>builder()
+                .input(input)
+                .output(output)
+                .annualFrequency(frequency)
+                .analysis(v -> compute(v, selection, parameters))
+                .writer(format::write)
+                .builders(Math.max(1, nthreads / 2))
+                .analysers(nthreads)
+                .capacity(capacity(nthreads))
+                .listener(progress ? new Progress(err) : null)
+                .build();
+        Pipeline.Report report = pipeline.run();
+
+        for (Pipeline.Failure failure : report.getFailures()) {
+            err.println(failure.getName() + " (" + failure.getStage() + "): " + failure.getError());
+        }
+        if (progress) {
+            for (Pipeline.Metrics m : report.getStages()) {
+                err.println(String.format(Locale.ROOT, "%-8s threads=%d items=%d failures=%d busy=%dms input-wait=%dms output-wait=%dms max-queue=%d",
+                        m.getStage(), m.getThreads(), m.getItems(), m.getFailures(),
+                        millis(m.getBusyNanos()), millis(m.getInputWaitNanos()), millis(m.getOutputWaitNanos()), m.getMaxQueueSize()));
+            }
+            err.println("elapsed: " + millis(report.getElapsedNanos()) + "ms");
+        }
+        err.flush();
+        return report.getFailures().isEmpty() ? 0 : 1;
+    }
+
+    static List<Table> compute(TsDataVintages<LocalDate> v, List<Analysis> analyses, Parameters parameters) {
+        List<Table> tables = new ArrayList<>(analyses.size());
+        for (Analysis analysis : analyses) {
+            tables.add(analysis.compute(v, parameters));
+        }
+        return tables;
+    }
+
+    /**
+     * Capacity of the queues of the pipeline, derived from the memory budget
+     * and from the average size of the input files
+     */
+    private int capacity(int nthreads) throws IOException {
+        long budget = memory > 0 ? memory << 20 : Runtime.getRuntime().maxMemory() / 4;
+        long size = averageSize();
+        long items = budget / Math.max(1, size * EXPANSION);
+        // series held by the workers (loaders, builders, analysers and writers)
+        items -= 4 + nthreads + Math.max(1, nthreads / 2) + 2;
+        // 3 queues
+        return (int) Math.max(1, Math.min(1024, items / 3));
+    }
+
+    private long averageSize() throws IOException {
+        if (!Files.isDirectory(input)) {
+            return Files.size(input);
+        }
+        long n = 0, size = 0;
+        try (Stream<Path> all = Files.list(input)) {
+            for (Path file : (Iterable<Path>) all::iterator) {
+                if (file.getFileName().toString().endsWith(".csv")) {
+                    size += Files.size(file);
+                    ++n;
+                }
+            }
+        }
+        return n == 0 ? 0 : size / n;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class Progress implements Pipeline.Listener {
+
+        private static final long PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+        private final PrintWriter err;
+        private final AtomicInteger processed = new AtomicInteger(), failed = new AtomicInteger();
+        private final AtomicLong last = new AtomicLong(System.nanoTime());
+        private volatile int count;
+
+        private Progress(PrintWriter err) {
+            this.err = err;
+        }
+
+        @Override
+        public void started(int count) {
+            this.count = count;
+            err.println(count + " files");
+            err.flush();
+        }
+
+        @Override
+        public void processed(String name) {
+            processed.incrementAndGet();
+            report();
+        }
+
+        @Override
+        public void failed(Pipeline.Failure failure) {
+            failed.incrementAndGet();
+            report();
+        }
+
+        private void report() {
+            long now = System.nanoTime(), prev = last.get();
+            int n = processed.get() + failed.get();
+            if ((now - prev >= PERIOD && last.compareAndSet(prev, now)) || n == count) {
+                synchronized (err) {
+                    err.println("processed " + processed.get() + "/" + count + " (failed " + failed.get() + ")");
+                    err.flush();
+                }
+            }
+        }
+    }
+}
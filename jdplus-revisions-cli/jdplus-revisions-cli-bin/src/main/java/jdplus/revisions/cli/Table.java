@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+
+/**
+ * Result of an analysis on a series
+ *
+ * @author PALATEJ
+ */
+@lombok.Value
+public class Table {
+
+    Analysis analysis;
+
+    /**
+     * Labels of the rows. May be null (rows are then identified by their
+     * position)
+     */
+    String[] rows;
+
+    String[] columns;
+
+    Matrix data;
+
+    public String row(int i) {
+        return rows == null || rows[i] == null ? Integer.toString(i) : rows[i];
+    }
+}
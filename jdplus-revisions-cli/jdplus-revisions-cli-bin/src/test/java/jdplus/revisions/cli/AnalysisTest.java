@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.time.LocalDate;
+import jdplus.revisions.base.api.timeseries.TsDataVintages;
+import jdplus.revisions.base.r.Utility;
+import jdplus.toolkit.base.api.timeseries.TsPeriod;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class AnalysisTest {
+
+    public AnalysisTest() {
+    }
+
+    @Test
+    public void testShortSeries() {
+        TsDataVintages.Builder<LocalDate> builder = TsDataVintages.<LocalDate>builder();
+        TsPeriod start = TsPeriod.monthly(2010, 1);
+        for (int i = 0; i < 36; ++i) {
+            for (int k = 0; k < 2; ++k) {
+                builder.add(start, start.end().toLocalDate().plusMonths(k), i + Math.sin(i + k));
+            }
+            start = start.next();
+        }
+        TsDataVintages<LocalDate> v = builder.build();
+        // not enough vintages for the gap
+        Parameters p = Parameters.builder().gap(2).build();
+        for (Analysis analysis : new Analysis[]{Analysis.THEIL, Analysis.SLOPEANDDRIFT, Analysis.EFFICIENCY1, Analysis.SIGNALNOISE}) {
+            Table table = analysis.compute(v, p);
+            assertEquals(0, table.getData().getRowsCount());
+            assertEquals(table.getColumns().length, table.getData().getColumnsCount());
+        }
+        assertArrayEquals(Utility.theilFields(), Analysis.THEIL.compute(v, p).getColumns());
+
+        Table ur = Analysis.UNITROOT.compute(v, Parameters.builder().build());
+        assertArrayEquals(Utility.unitrootFields(), ur.getColumns());
+        assertEquals("status", ur.getColumns()[ur.getColumns().length - 1]);
+
+        Table vecm = Analysis.VECM.compute(v, Parameters.builder().lag(1).build());
+        assertArrayEquals(Utility.vecmFields(1), vecm.getColumns());
+        assertEquals(1, vecm.getData().getRowsCount());
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class DaemonTest {
+
+    public DaemonTest() {
+    }
+
+    @Test
+    public void testRequests(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("s.csv");
+        StringBuilder csv = new StringBuilder();
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < 48; ++i) {
+            LocalDate period = start.plusMonths(i);
+            for (int k = 1; k <= 4; ++k) {
+                csv.append(period).append(',').append(period.plusMonths(k)).append(',').append(i + Math.sin(i + k)).append('\n');
+            }
+        }
+        Files.writeString(file, csv);
+
+        Daemon daemon = new Daemon(1, dir);
+        assertEquals("ok 0\n", request(daemon, "ping"));
+        assertTrue(request(daemon, "unknown").startsWith("error "));
+        assertTrue(request(daemon, "load a").startsWith("error "));
+        assertTrue(request(daemon, "load a s.csv").startsWith("ok 1\n48 "));
+        assertTrue(request(daemon, "list").startsWith("ok 1\na 48 "));
+
+        String rslt = request(daemon, "analyse a vertical,theil gap=2");
+        String[] lines = rslt.split("\n");
+        assertEquals(lines.length - 1, Integer.parseInt(lines[0].substring(3)));
+        assertTrue(lines[1].startsWith("table vertical "));
+
+        assertEquals("ok 0\n", request(daemon, "drop a"));
+        assertEquals("ok 0\n", request(daemon, "list"));
+
+        StringWriter out = new StringWriter();
+        assertFalse(daemon.execute("shutdown", out));
+    }
+
+    @Test
+    public void testDataRoot(@TempDir Path dir) throws IOException {
+        Path data = Files.createDirectory(dir.resolve("data"));
+        Files.writeString(dir.resolve("secret.csv"), "2020-01-01,2020-02-01,1\n");
+        Daemon daemon = new Daemon(1, data);
+        assertEquals("error unknown series ../secret.csv\n", request(daemon, "load a ../secret.csv"));
+        assertTrue(request(daemon, "load a " + dir.resolve("secret.csv")).startsWith("error unknown series"));
+        assertTrue(request(daemon, "analyse " + dir.resolve("secret.csv") + " theil").startsWith("error unknown series"));
+    }
+
+    @Test
+    public void testServe(@TempDir Path dir) throws Exception {
+        Daemon daemon = new Daemon(2, dir);
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        CompletableFuture<Void> server = CompletableFuture.runAsync(() -> {
+            try {
+                daemon.serve(channel, "secret");
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        try (SocketChannel client = SocketChannel.open(channel.getLocalAddress())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8);
+            send(out, "ping");
+            assertEquals("error unauthorized", in.readLine());
+            assertNull(in.readLine());
+        }
+        // idle connection, closed at shutdown
+        try (SocketChannel idle = SocketChannel.open(channel.getLocalAddress());
+                SocketChannel client = SocketChannel.open(channel.getLocalAddress())) {
+            BufferedReader idleIn = new BufferedReader(new InputStreamReader(Channels.newInputStream(idle), StandardCharsets.UTF_8));
+            Writer idleOut = new OutputStreamWriter(Channels.newOutputStream(idle), StandardCharsets.UTF_8);
+            send(idleOut, "auth secret");
+            send(idleOut, "ping");
+            assertEquals("ok 0", idleIn.readLine());
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8);
+            send(out, "auth secret");
+            send(out, "ping");
+            assertEquals("ok 0", in.readLine());
+            send(out, "shutdown");
+            assertEquals("ok 0", in.readLine());
+            assertNull(in.readLine());
+            server.get(10, TimeUnit.SECONDS);
+            assertFalse(channel.isOpen());
+            assertNull(idleIn.readLine());
+        }
+    }
+
+    @Test
+    public void testLimits(@TempDir Path dir) throws Exception {
+        Daemon daemon = new Daemon(dir, 1, 1, 0, Duration.ofMillis(300));
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        CompletableFuture<Void> server = CompletableFuture.runAsync(() -> {
+            try {
+                daemon.serve(channel, "secret");
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        try (SocketChannel client = SocketChannel.open(channel.getLocalAddress())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8);
+            send(out, "auth secret");
+            send(out, "load a s.csv");
+            assertEquals("error too many loaded series (0), drop one first", in.readLine());
+            // the only connection is used
+            try (SocketChannel other = SocketChannel.open(channel.getLocalAddress())) {
+                BufferedReader otherIn = new BufferedReader(new InputStreamReader(Channels.newInputStream(other), StandardCharsets.UTF_8));
+                assertEquals("error too many connections", otherIn.readLine());
+                assertNull(otherIn.readLine());
+            }
+            // idle connection
+            assertNull(in.readLine());
+        }
+        // the connection is released after the timeout
+        Thread.sleep(100);
+        try (SocketChannel client = SocketChannel.open(channel.getLocalAddress())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+            // no authentication
+            assertNull(in.readLine());
+        }
+        Thread.sleep(100);
+        try (SocketChannel client = SocketChannel.open(channel.getLocalAddress())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8);
+            send(out, "auth secret");
+            send(out, "shutdown");
+            assertEquals("ok 0", in.readLine());
+        }
+        server.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void send(Writer out, String request) throws IOException {
+        out.write(request + "\n");
+        out.flush();
+    }
+
+    private static String request(Daemon daemon, String request) throws IOException {
+        StringWriter out = new StringWriter();
+        assertTrue(daemon.execute(request, out));
+        return out.toString();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package jdplus.revisions.cli;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdplus.toolkit.base.api.math.matrices.Matrix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author PALATEJ
+ */
+public class FormatTest {
+
+    public FormatTest() {
+    }
+
+    @Test
+    public void testCsv(@TempDir Path dir) throws IOException {
+        Table table = new Table(Analysis.BIAS, null, new String[]{"a", "b"}, Matrix.of(new double[]{1, 2, 3, Double.NaN}, 2, 2));
+        Format.CSV.write("s", List.of(table), dir);
+        assertEquals(List.of("row,a,b", "0,1.0,3.0", "1,2.0,"), Files.readAllLines(dir.resolve("s-bias.csv")));
+    }
+
+    @Test
+    public void testBinary(@TempDir Path dir) throws IOException {
+        Table table = new Table(Analysis.THEIL, new String[]{"x", "y", "z"}, new String[]{"theil"}, Matrix.of(new double[]{.1, .2, .3}, 3, 1));
+        Format.BINARY.write("s", List.of(table), dir);
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(dir.resolve("s-theil.bin")))) {
+            assertEquals(Format.MAGIC, in.readInt());
+            assertEquals(Format.VERSION, in.readInt());
+            assertEquals(3, in.readInt());
+            assertEquals(1, in.readInt());
+            assertEquals("theil", in.readUTF());
+            assertEquals("x", in.readUTF());
+            assertEquals("y", in.readUTF());
+            assertEquals("z", in.readUTF());
+            assertEquals(.1, in.readDouble());
+            assertEquals(.2, in.readDouble());
+            assertEquals(.3, in.readDouble());
+        }
+    }
+}